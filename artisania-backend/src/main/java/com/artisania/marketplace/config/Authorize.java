@@ -0,0 +1,24 @@
+package com.artisania.marketplace.config;
+
+import com.artisania.marketplace.service.AuthorizationRule;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guards a controller method with a precompiled AuthorizationRule instead of a
+ * SpEL expression. {@code id} names the argument holding the resource id, optionally
+ * followed by a property path, e.g. {@code "productImage.product.id"}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Authorize {
+
+    AuthorizationRule value();
+
+    String id() default "";
+}
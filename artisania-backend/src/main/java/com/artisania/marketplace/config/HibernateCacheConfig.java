@@ -0,0 +1,103 @@
+package com.artisania.marketplace.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache, with one Caffeine-backed JCache region per entity.
+ *
+ * Regions are created up front so each gets its own size bound and time-to-live. Entity writes
+ * through JPA invalidate the matching region entries and bump the table timestamps that the
+ * query cache checks, so cached query results never outlive a committed change.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String CATEGORY_REGION = "category";
+    public static final String ARTISAN_PROFILE_REGION = "artisanProfile";
+    public static final String PRODUCT_REGION = "product";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${cache.second-level.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.category.max-size:1000}")
+    private long categoryMaxSize;
+
+    @Value("${cache.category.ttl-minutes:60}")
+    private long categoryTtlMinutes;
+
+    @Value("${cache.artisan-profile.max-size:10000}")
+    private long artisanProfileMaxSize;
+
+    @Value("${cache.artisan-profile.ttl-minutes:30}")
+    private long artisanProfileTtlMinutes;
+
+    @Value("${cache.product.max-size:50000}")
+    private long productMaxSize;
+
+    @Value("${cache.product.ttl-minutes:10}")
+    private long productTtlMinutes;
+
+    @Value("${cache.query.max-size:1000}")
+    private long queryMaxSize;
+
+    @Value("${cache.query.ttl-minutes:10}")
+    private long queryTtlMinutes;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                provider.getDefaultURI(), HibernateCacheConfig.class.getClassLoader());
+
+        createRegion(cacheManager, CATEGORY_REGION, categoryMaxSize, categoryTtlMinutes);
+        createRegion(cacheManager, ARTISAN_PROFILE_REGION, artisanProfileMaxSize, artisanProfileTtlMinutes);
+        createRegion(cacheManager, PRODUCT_REGION, productMaxSize, productTtlMinutes);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryMaxSize, queryTtlMinutes);
+        // Timestamps must never be evicted, or stale query results could be served
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, 0, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    // maxSize/ttlMinutes of 0 mean unbounded
+    private static void createRegion(CacheManager cacheManager, String name, long maxSize, long ttlMinutes) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttlMinutes > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
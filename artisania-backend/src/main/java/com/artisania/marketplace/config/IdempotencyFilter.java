@@ -0,0 +1,132 @@
+package com.artisania.marketplace.config;
+
+import com.artisania.marketplace.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+/**
+ * Honors the Idempotency-Key header on POST /api/orders and POST /api/cart/add.
+ *
+ * Runs after the security filter chain, so the key is scoped to the authenticated user.
+ * The first successful response for a key is stored and replayed byte-for-byte on retries
+ * without reaching the controller. Reusing a key with a different request body is rejected.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Value("${idempotency.paths:/api/orders,/api/cart/add}")
+    private Set<String> paths;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Invalid " + HEADER + " header");
+            return;
+        }
+
+        // Read the body once so it can be hashed and still reach the controller
+        byte[] requestBody = StreamUtils.copyToByteArray(request.getInputStream());
+        byte[] requestHash = sha256(requestBody);
+        String storeKey = principalName() + "|" + request.getRequestURI() + "|" + idempotencyKey;
+
+        IdempotencyStore.Entry existing = idempotencyStore.claim(storeKey, requestHash);
+        if (existing != null) {
+            if (!existing.matchesRequest(requestHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used with a different request body");
+            } else if (existing.isInProgress()) {
+                writeError(response, HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " is still being processed");
+            } else {
+                replay(response, existing);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, requestBody), wrapper);
+            int status = wrapper.getStatus();
+            if (status >= 200 && status < 300) {
+                idempotencyStore.complete(storeKey, requestHash, status, wrapper.getContentType(),
+                        wrapper.getContentAsByteArray());
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(storeKey);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyStore.Entry entry) throws IOException {
+        response.setStatus(entry.getStatus());
+        if (entry.getContentType() != null) {
+            response.setContentType(entry.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(entry.getBody().length);
+        response.getOutputStream().write(entry.getBody());
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        String escaped = message.replace("\\", "\\\\").replace("\"", "\\\"");
+        response.getOutputStream().write(("{\"error\":\"" + escaped + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String principalName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonymous";
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.artisania.marketplace.config;
 
 import com.artisania.marketplace.service.JwtService;
 import com.artisania.marketplace.service.CustomUserDetailsService;
+import com.artisania.marketplace.service.TokenRevocationService;
+import com.artisania.marketplace.service.UserStatusCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +29,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -47,14 +56,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Verify signature and expiry once; everything below reads the parsed claims
+            Claims claims = jwtService.parseToken(jwt);
+            userEmail = claims.getSubject();
 
-            // If we have a username and no authentication is set
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            // If we have a username, the token is not revoked and no authentication is set
+            if (userEmail != null && !tokenRevocationService.isRevoked(claims)
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Tokens carrying a user id resolve from the status cache; older tokens fall back to a lookup
+                Long userId = jwtService.extractUserId(claims);
+                UserDetails userDetails = userId != null
+                        ? userStatusCache.get(userId)
+                        : this.userDetailsService.loadUserByUsername(userEmail);
 
                 // Validate the token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -0,0 +1,197 @@
+package com.artisania.marketplace.config;
+
+import com.artisania.marketplace.service.RateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Throttles the public authentication endpoints before any authentication work runs.
+ *
+ * Login and registration are limited per client IP and per target email, so a single
+ * source cannot spray passwords and a single account cannot be brute-forced from many
+ * sources. check-email and refresh are limited per IP. Rejected requests get 429 with
+ * Retry-After. JSON login/registration bodies over 16 KB are rejected with 413 before
+ * they are buffered.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> REGISTER_PATHS = Set.of(
+            "/auth/register", "/auth/register-customer", "/auth/register-artisan", "/auth/register-artisan-json");
+    private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Limits are "burst capacity,tokens per minute"
+    @Value("${rate-limit.login.ip:20,10}")
+    private String loginIpSpec;
+
+    @Value("${rate-limit.login.email:10,5}")
+    private String loginEmailSpec;
+
+    @Value("${rate-limit.register.ip:10,5}")
+    private String registerIpSpec;
+
+    @Value("${rate-limit.register.email:3,1}")
+    private String registerEmailSpec;
+
+    @Value("${rate-limit.check-email.ip:30,30}")
+    private String checkEmailIpSpec;
+
+    @Value("${rate-limit.refresh.ip:30,30}")
+    private String refreshIpSpec;
+
+    private RateLimiter.Rule loginIp;
+    private RateLimiter.Rule loginEmail;
+    private RateLimiter.Rule registerIp;
+    private RateLimiter.Rule registerEmail;
+    private RateLimiter.Rule checkEmailIp;
+    private RateLimiter.Rule refreshIp;
+
+    @PostConstruct
+    public void init() {
+        loginIp = RateLimiter.Rule.parse("login.ip", loginIpSpec);
+        loginEmail = RateLimiter.Rule.parse("login.email", loginEmailSpec);
+        registerIp = RateLimiter.Rule.parse("register.ip", registerIpSpec);
+        registerEmail = RateLimiter.Rule.parse("register.email", registerEmailSpec);
+        checkEmailIp = RateLimiter.Rule.parse("check-email.ip", checkEmailIpSpec);
+        refreshIp = RateLimiter.Rule.parse("refresh.ip", refreshIpSpec);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        String clientIp = request.getRemoteAddr();
+        HttpServletRequest forwarded = request;
+        long retryAfter = 0;
+
+        if ("POST".equals(method) && path.equals("/auth/login")) {
+            retryAfter = rateLimiter.tryAcquire(loginIp, clientIp);
+            if (retryAfter == 0) {
+                forwarded = withCachedBody(request);
+                if (forwarded == null) {
+                    rejectTooLarge(response);
+                    return;
+                }
+                retryAfter = limitByEmail(loginEmail, forwarded);
+            }
+        } else if ("POST".equals(method) && REGISTER_PATHS.contains(path)) {
+            retryAfter = rateLimiter.tryAcquire(registerIp, clientIp);
+            if (retryAfter == 0) {
+                forwarded = withCachedBody(request);
+                if (forwarded == null) {
+                    rejectTooLarge(response);
+                    return;
+                }
+                retryAfter = limitByEmail(registerEmail, forwarded);
+            }
+        } else if ("GET".equals(method) && path.equals("/auth/check-email")) {
+            retryAfter = rateLimiter.tryAcquire(checkEmailIp, clientIp);
+        } else if ("POST".equals(method) && path.equals("/auth/refresh")) {
+            retryAfter = rateLimiter.tryAcquire(refreshIp, clientIp);
+        }
+
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write("{\"error\":\"Too many requests, please retry later\"}"
+                    .getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        filterChain.doFilter(forwarded, response);
+    }
+
+    private long limitByEmail(RateLimiter.Rule rule, HttpServletRequest request) throws IOException {
+        String email = extractEmail(request);
+        if (email == null) {
+            return 0;
+        }
+        return rateLimiter.tryAcquire(rule, email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // JSON bodies are buffered so the email can be read here and again by the controller.
+    // Returns null for a body over the limit, judged by Content-Length or by reading at most
+    // one byte past it, so an oversized body is never held in memory.
+    private HttpServletRequest withCachedBody(HttpServletRequest request) throws IOException {
+        if (!isJson(request)) {
+            return request;
+        }
+        if (request.getContentLengthLong() > MAX_INSPECTED_BODY_BYTES) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+        if (body.length > MAX_INSPECTED_BODY_BYTES) {
+            return null;
+        }
+        return new CachedBodyRequest(request, body);
+    }
+
+    private static void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write("{\"error\":\"Request body too large\"}"
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String extractEmail(HttpServletRequest request) throws IOException {
+        if (!isJson(request)) {
+            // Form and multipart registrations carry the email as a request parameter
+            return request.getParameter("email");
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText() : null;
+        } catch (IOException e) {
+            // Malformed JSON is left for the controller to reject
+            return null;
+        }
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json");
+    }
+}
@@ -1,12 +1,22 @@
 package com.artisania.marketplace.config;
 
 import com.artisania.marketplace.service.CustomUserDetailsService;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -28,12 +38,19 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    // Raising the cost rehashes each stored password on its owner's next login
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -41,9 +58,22 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
+    // Method interceptor for @Authorize; sits next to the @PreAuthorize interceptor
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor authorizeMethodInterceptor(ObjectProvider<CompiledAuthorizationManager> compiledAuthorizationManager) {
+        AuthorizationManager<MethodInvocation> manager =
+                (authentication, invocation) -> compiledAuthorizationManager.getObject().check(authentication, invocation);
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                new AnnotationMatchingPointcut(null, Authorize.class, true), manager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
@@ -82,6 +112,9 @@ public class SecurityConfig {
                 .requestMatchers("GET", "/api/products/**").permitAll()
                 .requestMatchers("POST", "/api/products").hasRole("ARTISAN")
                 
+                // Typeahead suggestions - Public
+                .requestMatchers("GET", "/api/suggest").permitAll()
+                
                 // Product Images - GET public
                 .requestMatchers("GET", "/api/product-images/**").permitAll()
                 
@@ -100,6 +133,9 @@ public class SecurityConfig {
                 // Cart endpoints - require authentication
                 .requestMatchers("/api/cart/**").authenticated()
                 
+                // Guest cart - Public (stateless, the cart is the signed token)
+                .requestMatchers("/api/guest-cart/**").permitAll()
+                
                 // Orders - POST requires CUSTOMER, artisan endpoints for ARTISAN, others handled by method security
                 .requestMatchers("POST", "/api/orders").hasRole("CUSTOMER")
                 .requestMatchers("GET", "/api/orders/artisan").hasRole("ARTISAN")
@@ -113,7 +149,8 @@ public class SecurityConfig {
                 .anyRequest().permitAll()
             )
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
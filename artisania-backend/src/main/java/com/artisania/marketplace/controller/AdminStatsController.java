@@ -0,0 +1,84 @@
+package com.artisania.marketplace.controller;
+
+import com.artisania.marketplace.service.CartWriteBehindStore;
+import com.artisania.marketplace.service.EntityCacheService;
+import com.artisania.marketplace.service.PasswordHashingService;
+import com.artisania.marketplace.service.RateLimiter;
+import com.artisania.marketplace.service.RuntimeDiagnosticsService;
+import com.artisania.marketplace.service.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminStatsController {
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RuntimeDiagnosticsService runtimeDiagnosticsService;
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    // Second-level and query cache hit/miss statistics - Only ADMIN
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(entityCacheService.getStatistics());
+    }
+
+    // Size of the in-memory token deny list - Only ADMIN
+    @GetMapping("/revocations")
+    public ResponseEntity<Map<String, Object>> getRevocationStatistics() {
+        return ResponseEntity.ok(Map.of(
+            "revokedTokens", tokenRevocationService.getRevokedTokenCount(),
+            "revokedUsers", tokenRevocationService.getRevokedUserCount()
+        ));
+    }
+
+    // Password hashing pool utilisation, queue depth and rejections - Only ADMIN
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStatistics() {
+        return ResponseEntity.ok(passwordHashingService.getStatistics());
+    }
+
+    // Auth endpoint rate limiter: allowed/rejected counts per rule - Only ADMIN
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> getRateLimitStatistics() {
+        return ResponseEntity.ok(rateLimiter.getStatistics());
+    }
+
+    // JDBC pool size, active/idle connections and threads waiting for one - Only ADMIN
+    @GetMapping("/connection-pool")
+    public ResponseEntity<Map<String, Object>> getConnectionPoolStatistics() {
+        return ResponseEntity.ok(runtimeDiagnosticsService.getConnectionPoolStatistics());
+    }
+
+    // Request threading mode and virtual thread pinning sites - Only ADMIN
+    @GetMapping("/threads")
+    public ResponseEntity<Map<String, Object>> getThreadingStatistics() {
+        return ResponseEntity.ok(runtimeDiagnosticsService.getThreadingStatistics());
+    }
+
+    // Write-behind cart buffer: active carts, dirty lines, buffered vs flushed writes - Only ADMIN
+    @GetMapping("/cart-write-behind")
+    public ResponseEntity<Map<String, Object>> getCartWriteBehindStatistics() {
+        return ResponseEntity.ok(cartWriteBehindStore.getStatistics());
+    }
+}
@@ -1,27 +1,39 @@
 package com.artisania.marketplace.controller;
 
+import com.artisania.marketplace.dto.AuthenticatedUser;
 import com.artisania.marketplace.dto.RegisterRequest;
 import com.artisania.marketplace.dto.RegisterArtisanRequest;
 import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.service.UserService;
 import com.artisania.marketplace.service.JwtService;
 import com.artisania.marketplace.service.ArtisanProfileService;
+import com.artisania.marketplace.service.CartItemService;
 import com.artisania.marketplace.service.FileStorageService;
+import com.artisania.marketplace.service.GuestCartTokenService;
+import com.artisania.marketplace.service.PasswordHashingService;
+import com.artisania.marketplace.service.RefreshTokenService;
+import com.artisania.marketplace.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -37,34 +49,56 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
-    @Autowired
-    private UserDetailsService userDetailsService;
-
     @Autowired
     private ArtisanProfileService artisanProfileService;
 
     @Autowired
     private FileStorageService fileStorageService;
 
-    // Register Customer endpoint
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private GuestCartTokenService guestCartTokenService;
+
+    @Autowired
+    private CartItemService cartItemService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+
+    // Register Customer endpoint (only hashing runs on the password hashing pool; the insert
+    // continues on the application task executor, as in login)
     @PostMapping("/register-customer")
-    public ResponseEntity<?> registerCustomer(@Valid @RequestBody RegisterRequest registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerCustomer(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
-            User user = new User();
-            user.setEmail(registerRequest.getEmail());
-            user.setRole(User.UserRole.CUSTOMER);
-            user.setIsActive(true);
-            
-            User savedUser = userService.createUserWithPassword(user, registerRequest.getPassword());
-            
-            return ResponseEntity.ok(Map.of(
-                "message", "Customer registered successfully", 
-                "userId", savedUser.getId(),
-                "email", savedUser.getEmail(),
-                "role", savedUser.getRole()
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return passwordHashingService.submit(() -> passwordHashingService.encode(registerRequest.getPassword()))
+                .<ResponseEntity<?>>thenApplyAsync(passwordHash -> {
+                    User user = new User();
+                    user.setEmail(registerRequest.getEmail());
+                    user.setRole(User.UserRole.CUSTOMER);
+                    user.setIsActive(true);
+
+                    User savedUser = userService.createUserWithPasswordHash(user, passwordHash);
+
+                    return ResponseEntity.ok(Map.of(
+                        "message", "Customer registered successfully",
+                        "userId", savedUser.getId(),
+                        "email", savedUser.getEmail(),
+                        "role", savedUser.getRole()
+                    ));
+                }, applicationTaskExecutor).exceptionally(e -> isHashingSaturated(e)
+                    ? tooManyRequests()
+                    : ResponseEntity.badRequest().body(Map.of("error", unwrap(e).getMessage())));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
         }
     }
 
@@ -132,13 +166,14 @@ public class AuthController {
                     email, password, displayName, bio, profileImageUrl, coverImageUrl);
             
             // Generate JWT token for immediate login
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            String jwtToken = jwtService.generateToken(userDetails);
+            String jwtToken = jwtService.generateToken(AuthenticatedUser.fromUser(response.getUser()));
+            String refreshToken = refreshTokenService.issue(response.getUser().getId());
             
             // Return enhanced response with token and full profile data
             Map<String, Object> responseMap = new HashMap<>();
             responseMap.put("message", "Artisan registered successfully");
             responseMap.put("token", jwtToken);
+            responseMap.put("refreshToken", refreshToken);
             
             // User info (these should never be null)
             Map<String, Object> userInfo = new HashMap<>();
@@ -164,6 +199,9 @@ public class AuthController {
             return ResponseEntity.ok(responseMap);
             
         } catch (RuntimeException e) {
+            if (isHashingSaturated(e)) {
+                return tooManyRequests();
+            }
             // Handle registration failures - cleanup uploaded files if any
             // Note: In a production system, you might want to implement cleanup logic here
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -173,6 +211,26 @@ public class AuthController {
         }
     }
 
+    // Password hashing pool is saturated - ask the client to retry shortly
+    private ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", "Too many authentication requests, please retry shortly"));
+    }
+
+    private boolean isHashingSaturated(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
     // Helper method to generate proper image URL
     private String generateImageUrl(String fileName) {
         // Use the FileController endpoint format: /api/files/images/artisans/{filename}
@@ -210,60 +268,126 @@ public class AuthController {
                 "email", savedUser.getEmail(),
                 "role", savedUser.getRole()
             ));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
-    // Login endpoint
+    // Refresh endpoint - exchanges a refresh token for a new access token and a rotated refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> refreshRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.get("refreshToken"));
+        if (rotation == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or expired refresh token"));
+        }
+
+        AuthenticatedUser user = rotation.getUser();
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", jwtService.generateToken(user));
+        response.put("refreshToken", rotation.getRefreshToken());
+        response.put("userId", user.getId());
+        response.put("email", user.getEmail());
+        response.put("role", user.getRole());
+        return ResponseEntity.ok(response);
+    }
+
+    // Logout endpoint - revokes the presented access token and, if given, its refresh token session
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) Map<String, String> logoutRequest) {
+        // The refresh token ends the session on its own, so it is revoked whatever the access token says
+        String refreshToken = logoutRequest != null ? logoutRequest.get("refreshToken") : null;
+        boolean hasRefreshToken = refreshToken != null && !refreshToken.isBlank();
+        if (hasRefreshToken) {
+            refreshTokenService.revoke(refreshToken);
+        }
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (hasRefreshToken) {
+                return ResponseEntity.ok(Map.of("message", "Logout successful"));
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", "Bearer token or refresh token is required"));
+        }
+
+        try {
+            Claims claims = jwtService.parseToken(authHeader.substring(7));
+            tokenRevocationService.revokeToken(claims);
+            return ResponseEntity.ok(Map.of("message", "Logout successful"));
+        } catch (ExpiredJwtException e) {
+            // Already unusable, nothing left to revoke
+            return ResponseEntity.ok(Map.of("message", "Logout successful"));
+        } catch (JwtException | IllegalArgumentException e) {
+            if (hasRefreshToken) {
+                return ResponseEntity.ok(Map.of("message", "Logout successful"));
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
+        }
+    }
+
+    // Login endpoint (BCrypt verification runs on the password hashing pool, off the request thread)
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest) {
         String email = loginRequest.get("email");
         String password = loginRequest.get("password");
 
         if (email == null || password == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Email and password are required"));
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body(Map.of("error", "Email and password are required")));
         }
 
         try {
-            // Authenticate the user
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(email, password)
-            );
+            // Only the BCrypt check runs on the hashing pool; issuing tokens and merging the
+            // guest cart hit the database, so they continue on the application task executor
+            return passwordHashingService.submit(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(email, password)))
+                .<ResponseEntity<?>>thenApplyAsync(authentication -> {
+                    // The authenticated principal already carries the user's id and role
+                    if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                        // Generate JWT token
+                        String jwtToken = jwtService.generateToken(user);
 
-            // Get user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            
-            // Generate JWT token
-            String jwtToken = jwtService.generateToken(userDetails);
-            
-            // Get user info
-            Optional<User> userOpt = userService.getUserByEmail(email);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Login successful");
-                response.put("token", jwtToken);
-                response.put("userId", user.getId());
-                response.put("email", user.getEmail());
-                response.put("role", user.getRole());
-                
-                return ResponseEntity.ok(response);
-            }
-            
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Authentication failed"));
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid email or password"));
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("message", "Login successful");
+                        response.put("token", jwtToken);
+                        response.put("refreshToken", refreshTokenService.issue(user.getId()));
+                        response.put("userId", user.getId());
+                        response.put("email", user.getEmail());
+                        response.put("role", user.getRole());
+
+                        // Carry over what the visitor put in the cart before logging in
+                        String guestCartToken = loginRequest.get("guestCartToken");
+                        if (guestCartToken != null && !guestCartToken.isBlank()) {
+                            response.put("guestCartMerged", mergeGuestCart(user.getId(), guestCartToken));
+                        }
+
+                        return ResponseEntity.ok(response);
+                    }
+
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Authentication failed"));
+                }, applicationTaskExecutor)
+                .exceptionally(e -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid email or password")));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+    }
+
+    // Merge a guest cart token into the user's cart; a bad or expired token never fails the login
+    private int mergeGuestCart(Long userId, String guestCartToken) {
+        try {
+            return cartItemService.mergeGuestCart(userId, guestCartTokenService.decode(guestCartToken));
+        } catch (RuntimeException e) {
+            System.err.println("Guest cart merge failed for user " + userId + ": " + e.getMessage());
+            return 0;
         }
     }
 
     // Legacy register endpoint for backward compatibility
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest registerRequest) {
         if (registerRequest.getRole() == User.UserRole.ARTISAN) {
-            return registerArtisanJson(registerRequest);
+            return CompletableFuture.completedFuture(registerArtisanJson(registerRequest));
         } else {
             return registerCustomer(registerRequest);
         }
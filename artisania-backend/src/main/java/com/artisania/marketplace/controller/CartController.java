@@ -1,5 +1,7 @@
 package com.artisania.marketplace.controller;
 
+import com.artisania.marketplace.dto.CartBatchRequest;
+import com.artisania.marketplace.dto.CartView;
 import com.artisania.marketplace.model.CartItem;
 import com.artisania.marketplace.service.CartItemService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,8 @@ import java.util.HashMap;
 @CrossOrigin(origins = "*")
 public class CartController {
 
+    private static final int MAX_BATCH_OPERATIONS = 100;
+
     @Autowired
     private CartItemService cartItemService;
 
@@ -28,13 +32,21 @@ public class CartController {
             Long productId = Long.valueOf(request.get("productId").toString());
             Integer quantity = Integer.valueOf(request.get("quantity").toString());
 
-            CartItem cartItem = cartItemService.addToCart(userId, productId, quantity);
+            CartItemService.AddToCartResult result = cartItemService.addToCartWithCount(userId, productId, quantity);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Item added to cart successfully");
-            response.put("cartItem", cartItem);
-            response.put("cartCount", cartItemService.getCartItemCount(userId));
+            // Ids only: serializing the user/product references would load them again
+            CartItem cartItem = result.getCartItem();
+            response.put("cartItem", Map.of(
+                "id", cartItem.getId(),
+                "userId", userId,
+                "productId", productId,
+                "quantity", cartItem.getQuantity(),
+                "priceAtTime", cartItem.getPriceAtTime()
+            ));
+            response.put("cartCount", result.getCartCount());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -45,19 +57,46 @@ public class CartController {
         }
     }
 
+    // Apply several add/update/remove operations in one transaction and return the resulting cart
+    @PatchMapping("/batch")
+    public ResponseEntity<?> applyBatch(@RequestBody CartBatchRequest request) {
+        if (request.getUserId() == null || request.getOperations() == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", "userId and operations are required"));
+        }
+        if (request.getOperations().size() > MAX_BATCH_OPERATIONS) {
+            return ResponseEntity.badRequest().body(Map.of("success", false,
+                    "error", "At most " + MAX_BATCH_OPERATIONS + " operations per request"));
+        }
+        try {
+            CartView cart = cartItemService.applyBatch(request.getUserId(), request.getOperations());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("cartItems", cart.getItems());
+            response.put("total", cart.getTotal());
+            response.put("itemCount", cart.getItemCount());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+        }
+    }
+
     // Get cart items for a user
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getCartItems(@PathVariable Long userId) {
         try {
-            List<CartItem> cartItems = cartItemService.getCartItems(userId);
-            BigDecimal total = cartItemService.calculateCartTotal(userId);
-            long itemCount = cartItemService.getCartItemCount(userId);
+            // Items, line totals, total and count all come from one query
+            CartView cart = cartItemService.getCartView(userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("cartItems", cartItems);
-            response.put("total", total);
-            response.put("itemCount", itemCount);
+            response.put("cartItems", cart.getItems());
+            response.put("total", cart.getTotal());
+            response.put("itemCount", cart.getItemCount());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -0,0 +1,75 @@
+package com.artisania.marketplace.controller;
+
+import com.artisania.marketplace.dto.GuestCartRequest;
+import com.artisania.marketplace.service.GuestCartTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cart for anonymous visitors. Nothing is stored server-side: every change returns a new
+ * signed token that the client keeps and sends back, and that login merges into cart_items.
+ */
+@RestController
+@RequestMapping("/api/guest-cart")
+@CrossOrigin(origins = "*")
+public class GuestCartController {
+
+    private static final int MAX_BATCH_OPERATIONS = 100;
+
+    @Autowired
+    private GuestCartTokenService guestCartTokenService;
+
+    // Read a guest cart token - Public
+    @GetMapping
+    public ResponseEntity<?> getGuestCart(@RequestParam(required = false) String token) {
+        try {
+            Map<Long, Integer> lines = guestCartTokenService.decode(token);
+            return ResponseEntity.ok(response(token, lines));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+        }
+    }
+
+    // Apply add/update/remove operations and return the new token - Public
+    @PatchMapping
+    public ResponseEntity<?> updateGuestCart(@RequestBody GuestCartRequest request) {
+        if (request.getOperations() == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", "operations are required"));
+        }
+        if (request.getOperations().size() > MAX_BATCH_OPERATIONS) {
+            return ResponseEntity.badRequest().body(Map.of("success", false,
+                    "error", "At most " + MAX_BATCH_OPERATIONS + " operations per request"));
+        }
+        try {
+            Map<Long, Integer> lines = guestCartTokenService.apply(
+                    guestCartTokenService.decode(request.getToken()), request.getOperations());
+            return ResponseEntity.ok(response(guestCartTokenService.encode(lines), lines));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+        }
+    }
+
+    private Map<String, Object> response(String token, Map<Long, Integer> lines) {
+        List<Map<String, Object>> items = new ArrayList<>(lines.size());
+        lines.forEach((productId, quantity) -> items.add(Map.of("productId", productId, "quantity", quantity)));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("token", token);
+        response.put("items", items);
+        response.put("itemCount", items.size());
+        return response;
+    }
+}
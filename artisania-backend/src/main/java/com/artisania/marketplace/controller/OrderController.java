@@ -3,10 +3,11 @@ package com.artisania.marketplace.controller;
 import com.artisania.marketplace.model.Order;
 import com.artisania.marketplace.model.OrderItem;
 import com.artisania.marketplace.service.OrderService;
+import com.artisania.marketplace.config.Authorize;
+import com.artisania.marketplace.service.AuthorizationRule;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,7 +25,7 @@ public class OrderController {
 
     // Get all orders - Only ADMIN
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getAllOrders() {
         List<Order> orders = orderService.getAllOrders();
         return ResponseEntity.ok(orders);
@@ -32,7 +33,7 @@ public class OrderController {
 
     // Get order by ID - Owner or ADMIN
     @GetMapping("/{id}")
-    @PreAuthorize("@securityService.canViewOrder(#id)")
+    @Authorize(value = AuthorizationRule.VIEW_ORDER, id = "id")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
         Optional<Order> order = orderService.getOrderById(id);
         return order.map(ResponseEntity::ok)
@@ -41,7 +42,7 @@ public class OrderController {
 
     // Get orders by customer ID - Owner or ADMIN
     @GetMapping("/customer/{customerId}")
-    @PreAuthorize("@securityService.canViewCustomerOrders(#customerId)")
+    @Authorize(value = AuthorizationRule.VIEW_CUSTOMER_ORDERS, id = "customerId")
     public ResponseEntity<List<Order>> getOrdersByCustomer(@PathVariable Long customerId) {
         List<Order> orders = orderService.getOrdersByCustomerId(customerId);
         return ResponseEntity.ok(orders);
@@ -49,7 +50,7 @@ public class OrderController {
 
     // Get orders for current authenticated customer
     @GetMapping("/customer/me")
-    @PreAuthorize("hasRole('CUSTOMER')")
+    @Authorize(AuthorizationRule.CUSTOMER)
     public ResponseEntity<List<Order>> getCurrentCustomerOrders() {
         try {
             List<Order> orders = orderService.getOrdersForCurrentUser();
@@ -61,7 +62,7 @@ public class OrderController {
 
     // Get orders by status - Only ADMIN
     @GetMapping("/status/{status}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
         List<Order> orders = orderService.getOrdersByStatus(Order.OrderStatus.valueOf(status.toUpperCase()));
         return ResponseEntity.ok(orders);
@@ -76,7 +77,7 @@ public class OrderController {
 
     // Create new order - Authenticated users (CUSTOMER/ARTISAN) or anonymous (guests)
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
+    public ResponseEntity<?> createOrder(@RequestBody Order order) {
         try {
             Order savedOrder;
             
@@ -92,6 +93,12 @@ public class OrderController {
             }
             
             return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
+        } catch (IllegalStateException e) {
+            // Not enough stock left for one of the items
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            // Missing items, unknown products or invalid quantities
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -99,7 +106,7 @@ public class OrderController {
 
     // Update order - Only ADMIN
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
         try {
             Order updatedOrder = orderService.updateOrder(id, order);
@@ -111,7 +118,7 @@ public class OrderController {
 
     // Update order status - ARTISAN (for their products) or ADMIN
     @PutMapping("/{id}/status")
-    @PreAuthorize("@securityService.canUpdateOrderStatus(#id)")
+    @Authorize(value = AuthorizationRule.UPDATE_ORDER_STATUS, id = "id")
     public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestParam String status) {
         try {
             Order updatedOrder = orderService.updateOrderStatus(id, Order.OrderStatus.valueOf(status.toUpperCase()));
@@ -123,7 +130,7 @@ public class OrderController {
 
     // Delete order - Only ADMIN
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         try {
             orderService.deleteOrder(id);
@@ -135,7 +142,7 @@ public class OrderController {
 
     // Get order items for a specific order - Owner or ADMIN
     @GetMapping("/{orderId}/items")
-    @PreAuthorize("@securityService.canViewOrder(#orderId)")
+    @Authorize(value = AuthorizationRule.VIEW_ORDER, id = "orderId")
     public ResponseEntity<List<OrderItem>> getOrderItems(@PathVariable Long orderId) {
         Order order = orderService.getOrderById(orderId)
             .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -144,7 +151,7 @@ public class OrderController {
 
     // Mark order as processing - ARTISAN (for their products) or ADMIN
     @PutMapping("/{id}/processing")
-    @PreAuthorize("@securityService.canUpdateOrderStatus(#id)")
+    @Authorize(value = AuthorizationRule.UPDATE_ORDER_STATUS, id = "id")
     public ResponseEntity<Order> markAsProcessing(@PathVariable Long id) {
         try {
             Order updatedOrder = orderService.markAsProcessing(id);
@@ -156,7 +163,7 @@ public class OrderController {
 
     // Mark order as shipped - ARTISAN (for their products) or ADMIN
     @PutMapping("/{id}/shipped")
-    @PreAuthorize("@securityService.canUpdateOrderStatus(#id)")
+    @Authorize(value = AuthorizationRule.UPDATE_ORDER_STATUS, id = "id")
     public ResponseEntity<Order> markAsShipped(@PathVariable Long id) {
         try {
             Order updatedOrder = orderService.markAsShipped(id);
@@ -168,7 +175,7 @@ public class OrderController {
 
     // Mark order as delivered - ARTISAN (for their products) or ADMIN
     @PutMapping("/{id}/delivered")
-    @PreAuthorize("@securityService.canUpdateOrderStatus(#id)")
+    @Authorize(value = AuthorizationRule.UPDATE_ORDER_STATUS, id = "id")
     public ResponseEntity<Order> markAsDelivered(@PathVariable Long id) {
         try {
             Order updatedOrder = orderService.markAsDelivered(id);
@@ -180,7 +187,7 @@ public class OrderController {
 
     // Cancel order - Owner or ADMIN
     @PutMapping("/{id}/cancel")
-    @PreAuthorize("@securityService.canViewOrder(#id)")
+    @Authorize(value = AuthorizationRule.VIEW_ORDER, id = "id")
     public ResponseEntity<Order> cancelOrder(@PathVariable Long id) {
         try {
             Order cancelledOrder = orderService.cancelOrder(id);
@@ -192,7 +199,7 @@ public class OrderController {
 
     // Get pending orders - Only ADMIN
     @GetMapping("/pending")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getPendingOrders() {
         List<Order> orders = orderService.getPendingOrders();
         return ResponseEntity.ok(orders);
@@ -200,7 +207,7 @@ public class OrderController {
 
     // Get processing orders - Only ADMIN
     @GetMapping("/processing")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getProcessingOrders() {
         List<Order> orders = orderService.getProcessingOrders();
         return ResponseEntity.ok(orders);
@@ -208,7 +215,7 @@ public class OrderController {
 
     // Get shipped orders - Only ADMIN
     @GetMapping("/shipped")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getShippedOrders() {
         List<Order> orders = orderService.getShippedOrders();
         return ResponseEntity.ok(orders);
@@ -216,7 +223,7 @@ public class OrderController {
 
     // Get delivered orders - Only ADMIN
     @GetMapping("/delivered")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getDeliveredOrders() {
         List<Order> orders = orderService.getDeliveredOrders();
         return ResponseEntity.ok(orders);
@@ -224,7 +231,7 @@ public class OrderController {
 
     // Get cancelled orders - Only ADMIN
     @GetMapping("/cancelled")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<List<Order>> getCancelledOrders() {
         List<Order> orders = orderService.getCancelledOrders();
         return ResponseEntity.ok(orders);
@@ -239,7 +246,7 @@ public class OrderController {
      * Only ARTISAN can access this
      */
     @GetMapping("/artisan")
-    @PreAuthorize("hasRole('ARTISAN')")
+    @Authorize(AuthorizationRule.ARTISAN)
     public ResponseEntity<List<Order>> getArtisanOrders() {
         try {
             List<Order> orders = orderService.getOrdersForCurrentArtisan();
@@ -254,7 +261,7 @@ public class OrderController {
      * Only ARTISAN can access this, and only if they have products in this order
      */
     @GetMapping("/{orderId}/artisan")
-    @PreAuthorize("hasRole('ARTISAN') and @securityService.artisanHasProductsInOrder(#orderId)")
+    @Authorize(value = AuthorizationRule.ARTISAN_ORDER, id = "orderId")
     public ResponseEntity<Order> getArtisanOrderDetails(@PathVariable Long orderId) {
         try {
             Order order = orderService.getOrderWithArtisanItems(orderId);
@@ -269,7 +276,7 @@ public class OrderController {
      * Only ARTISAN can access this, and only for their own products
      */
     @PutMapping("/{orderId}/items/{itemId}/status")
-    @PreAuthorize("hasRole('ARTISAN') and @securityService.artisanOwnsOrderItem(#itemId)")
+    @Authorize(value = AuthorizationRule.ARTISAN_ORDER_ITEM, id = "itemId")
     public ResponseEntity<?> updateOrderItemStatus(
             @PathVariable Long orderId,
             @PathVariable Long itemId,
@@ -297,7 +304,7 @@ public class OrderController {
      * DEBUG: Get all orders with details to help troubleshoot
      */
     @GetMapping("/debug/all")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('ARTISAN')")
+    @Authorize(AuthorizationRule.ADMIN_OR_ARTISAN)
     public ResponseEntity<?> debugGetAllOrders() {
         try {
             List<Order> orders = orderService.getAllOrdersWithDetails();
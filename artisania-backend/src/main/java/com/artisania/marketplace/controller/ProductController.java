@@ -1,48 +1,100 @@
 package com.artisania.marketplace.controller;
 
 import com.artisania.marketplace.model.Product;
-import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.model.Category;
+import com.artisania.marketplace.service.FeaturedProductsSnapshotService;
 import com.artisania.marketplace.service.ProductService;
 import com.artisania.marketplace.service.SecurityService;
 import com.artisania.marketplace.repository.CategoryRepository;
-import com.artisania.marketplace.repository.ArtisanProfileRepository;
+import com.artisania.marketplace.service.CurrentPrincipal;
 import com.artisania.marketplace.dto.CreateProductRequest;
+import com.artisania.marketplace.dto.CursorPage;
+import com.artisania.marketplace.dto.FacetedProductPage;
+import com.artisania.marketplace.dto.ProductFacetFilter;
+import com.artisania.marketplace.dto.ProductCard;
 import com.artisania.marketplace.model.ArtisanProfile;
+import com.artisania.marketplace.config.Authorize;
+import com.artisania.marketplace.service.AuthorizationRule;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
 public class ProductController {
 
+    private static final int MAX_EDITABLE_CHECK_IDS = 500;
+
     @Autowired
     private ProductService productService;
 
     @Autowired
     private SecurityService securityService;
 
+    @Autowired
+    private FeaturedProductsSnapshotService featuredProductsSnapshotService;
+
     @Autowired
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ArtisanProfileRepository artisanProfileRepository;
+    private CurrentPrincipal currentPrincipal;
 
     // Get all products - Public access
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
+    public ResponseEntity<List<ProductCard>> getAllProducts() {
+        List<ProductCard> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
 
+    // Browse the catalog one keyset page at a time - Public access
+    @GetMapping("/browse")
+    public ResponseEntity<?> browseProducts(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<ProductCard> page = productService.getProductPage(sort, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Faceted catalog filtering with per-facet counts - Public access
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacetedProducts(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> artisanId,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Boolean featured,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            ProductFacetFilter filter = ProductFacetFilter.of(categoryId, artisanId, priceBand, inStock, featured);
+            FacetedProductPage result = productService.getFacetedProducts(filter, page, size);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Get product by ID - Public access
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
@@ -53,13 +105,10 @@ public class ProductController {
 
     // Create new product - Only ARTISAN can create products
     @PostMapping
-    @PreAuthorize("hasRole('ARTISAN')")
+    @Authorize(AuthorizationRule.ARTISAN)
     public ResponseEntity<Product> createProduct(@Valid @RequestBody CreateProductRequest createRequest) {
-        // Get current user (artisan)
-        User currentUser = securityService.getCurrentUser();
-        
-        // Get artisan profile
-        Optional<ArtisanProfile> artisanProfileOpt = artisanProfileRepository.findByUserId(currentUser.getId());
+        // Get the current artisan's profile (memoized for the request)
+        Optional<ArtisanProfile> artisanProfileOpt = currentPrincipal.getArtisanProfile();
         if (artisanProfileOpt.isEmpty()) {
             throw new RuntimeException("User must have an artisan profile to create products");
         }
@@ -84,7 +133,7 @@ public class ProductController {
 
     // Update product - Only product owner (ARTISAN) or ADMIN can update
     @PutMapping("/{id}")
-    @PreAuthorize("@securityService.canEditProduct(#id)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "id")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
         Optional<Product> existingProduct = productService.getProductById(id);
         if (existingProduct.isPresent()) {
@@ -97,7 +146,7 @@ public class ProductController {
 
     // Delete product - Only product owner (ARTISAN) or ADMIN can delete
     @DeleteMapping("/{id}")
-    @PreAuthorize("@securityService.canEditProduct(#id)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "id")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         Optional<Product> product = productService.getProductById(id);
         if (product.isPresent()) {
@@ -109,35 +158,53 @@ public class ProductController {
 
     // Get products by artisan - Public access
     @GetMapping("/artisan/{artisanId}")
-    public ResponseEntity<List<Product>> getProductsByArtisan(@PathVariable Long artisanId) {
-        List<Product> products = productService.getProductsByArtisanId(artisanId);
+    public ResponseEntity<List<ProductCard>> getProductsByArtisan(@PathVariable Long artisanId) {
+        List<ProductCard> products = productService.getProductsByArtisanId(artisanId);
         return ResponseEntity.ok(products);
     }
 
     // Get products by category - Public access
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productService.getProductsByCategoryId(categoryId);
+    public ResponseEntity<List<ProductCard>> getProductsByCategory(@PathVariable Long categoryId) {
+        List<ProductCard> products = productService.getProductsByCategoryId(categoryId);
         return ResponseEntity.ok(products);
     }
 
     // Get featured products - Public access
+    // Served from a pre-serialized snapshot with a strong ETag; clients revalidate with If-None-Match
     @GetMapping("/featured")
-    public ResponseEntity<List<Product>> getFeaturedProducts() {
-        List<Product> products = productService.getFeaturedProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getFeaturedProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        FeaturedProductsSnapshotService.Snapshot snapshot = featuredProductsSnapshotService.getSnapshot();
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getETag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getETag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.getBody());
     }
 
-    // Search products by name - Public access
+    // Search products by name, description, category or artisan - Public access
+    // Returns the ranked page as a plain list; the total match count is in X-Total-Count
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProductsByName(@RequestParam String name) {
-        List<Product> products = productService.searchProducts(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductCard>> searchProductsByName(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        Page<ProductCard> results = productService.searchProducts(name, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .body(results.getContent());
     }
 
     // Toggle featured status - Only ADMIN can toggle featured status
     @PutMapping("/{id}/featured")
-    @PreAuthorize("hasRole('ADMIN')")
+    @Authorize(AuthorizationRule.ADMIN)
     public ResponseEntity<Product> toggleFeaturedStatus(@PathVariable Long id) {
         Optional<Product> productOpt = productService.getProductById(id);
         if (productOpt.isPresent()) {
@@ -148,4 +215,20 @@ public class ProductController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    // Which of the given products can the caller edit - one query for the whole list
+    // Lets listing pages show edit controls without an authorization call per product
+    @PostMapping("/editable")
+    @Authorize(AuthorizationRule.AUTHENTICATED)
+    public ResponseEntity<?> getEditableProducts(@RequestBody Map<String, List<Long>> request) {
+        List<Long> productIds = request.get("productIds");
+        if (productIds == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "productIds is required"));
+        }
+        if (productIds.size() > MAX_EDITABLE_CHECK_IDS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_EDITABLE_CHECK_IDS + " productIds per request"));
+        }
+        Set<Long> editable = securityService.getEditableProductIds(new LinkedHashSet<>(productIds));
+        return ResponseEntity.ok(Map.of("editableProductIds", editable));
+    }
 } 
\ No newline at end of file
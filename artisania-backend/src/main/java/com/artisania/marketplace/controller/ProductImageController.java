@@ -3,10 +3,11 @@ package com.artisania.marketplace.controller;
 import com.artisania.marketplace.model.ProductImage;
 import com.artisania.marketplace.service.ProductImageService;
 import com.artisania.marketplace.service.FileStorageService;
+import com.artisania.marketplace.config.Authorize;
+import com.artisania.marketplace.service.AuthorizationRule;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -43,7 +44,7 @@ public class ProductImageController {
 
     // Add new product image - Product owner (ARTISAN) or ADMIN
     @PostMapping
-    @PreAuthorize("@securityService.canCreateProductImage(#productImage.product.id)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "productImage.product.id")
     public ResponseEntity<ProductImage> createProductImage(@RequestBody ProductImage productImage) {
         try {
             ProductImage savedImage = productImageService.addProductImage(productImage);
@@ -55,7 +56,7 @@ public class ProductImageController {
 
     // Update product image - Product owner (ARTISAN) or ADMIN
     @PutMapping("/{id}")
-    @PreAuthorize("@securityService.canEditProductImage(#id)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT_IMAGE, id = "id")
     public ResponseEntity<ProductImage> updateProductImage(@PathVariable Long id, @RequestBody ProductImage productImage) {
         try {
             ProductImage updatedImage = productImageService.updateProductImage(id, productImage);
@@ -67,7 +68,7 @@ public class ProductImageController {
 
     // Set as primary image - Product owner (ARTISAN) or ADMIN
     @PutMapping("/{id}/primary")
-    @PreAuthorize("@securityService.canEditProductImage(#id)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT_IMAGE, id = "id")
     public ResponseEntity<ProductImage> setPrimaryImage(@PathVariable Long id) {
         try {
             ProductImage primaryImage = productImageService.setAsPrimary(id);
@@ -79,7 +80,7 @@ public class ProductImageController {
 
     // Delete product image - Product owner (ARTISAN) or ADMIN
     @DeleteMapping("/{id}")
-    @PreAuthorize("@securityService.canEditProductImage(#id)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT_IMAGE, id = "id")
     public ResponseEntity<Void> deleteProductImage(@PathVariable Long id) {
         try {
             productImageService.deleteProductImage(id);
@@ -99,7 +100,7 @@ public class ProductImageController {
 
     // Bulk add images for a product - Product owner (ARTISAN) or ADMIN
     @PostMapping("/product/{productId}/bulk")
-    @PreAuthorize("@securityService.canCreateProductImage(#productId)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "productId")
     public ResponseEntity<List<ProductImage>> addMultipleImages(
             @PathVariable Long productId, 
             @RequestBody List<String> imageUrls,
@@ -121,7 +122,7 @@ public class ProductImageController {
 
     // Delete all images for a product - Product owner (ARTISAN) or ADMIN
     @DeleteMapping("/product/{productId}")
-    @PreAuthorize("@securityService.canCreateProductImage(#productId)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "productId")
     public ResponseEntity<Void> deleteAllProductImages(@PathVariable Long productId) {
         try {
             productImageService.deleteAllImagesByProductId(productId);
@@ -133,7 +134,7 @@ public class ProductImageController {
 
     // Upload single image for a product - Product owner (ARTISAN) or ADMIN
     @PostMapping("/upload/{productId}")
-    @PreAuthorize("@securityService.canCreateProductImage(#productId)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "productId")
     public ResponseEntity<Map<String, Object>> uploadProductImage(
             @PathVariable Long productId,
             @RequestParam("file") MultipartFile file,
@@ -170,7 +171,7 @@ public class ProductImageController {
 
     // Upload multiple images for a product - Product owner (ARTISAN) or ADMIN
     @PostMapping("/upload/{productId}/multiple")
-    @PreAuthorize("@securityService.canCreateProductImage(#productId)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT, id = "productId")
     public ResponseEntity<Map<String, Object>> uploadMultipleProductImages(
             @PathVariable Long productId,
             @RequestParam("files") MultipartFile[] files,
@@ -212,7 +213,7 @@ public class ProductImageController {
 
     // Replace existing image with new upload - Product owner (ARTISAN) or ADMIN
     @PutMapping("/upload/{imageId}/replace")
-    @PreAuthorize("@securityService.canEditProductImage(#imageId)")
+    @Authorize(value = AuthorizationRule.EDIT_PRODUCT_IMAGE, id = "imageId")
     public ResponseEntity<Map<String, Object>> replaceProductImage(
             @PathVariable Long imageId,
             @RequestParam("file") MultipartFile file) {
@@ -0,0 +1,27 @@
+package com.artisania.marketplace.controller;
+
+import com.artisania.marketplace.dto.Suggestion;
+import com.artisania.marketplace.service.SuggestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/suggest")
+@CrossOrigin(origins = "*")
+public class SuggestController {
+
+    @Autowired
+    private SuggestService suggestService;
+
+    // Typeahead for product and artisan names - Public access
+    @GetMapping
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+        List<Suggestion> suggestions = suggestService.suggest(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+}
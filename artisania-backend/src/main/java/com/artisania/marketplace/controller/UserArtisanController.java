@@ -3,15 +3,12 @@ package com.artisania.marketplace.controller;
 import com.artisania.marketplace.model.ArtisanProfile;
 import com.artisania.marketplace.dto.CreateArtisanProfileRequest;
 import com.artisania.marketplace.service.ArtisanProfileService;
+import com.artisania.marketplace.service.CurrentPrincipal;
 import com.artisania.marketplace.service.FileStorageService;
-import com.artisania.marketplace.service.UserService;
-import com.artisania.marketplace.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -32,22 +29,13 @@ public class UserArtisanController {
     private FileStorageService fileStorageService;
 
     @Autowired
-    private UserService userService;
+    private CurrentPrincipal currentPrincipal;
 
     /**
      * Helper method to get current user's artisan profile
      */
     private Optional<ArtisanProfile> getMyArtisanProfile() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return Optional.empty();
-        }
-        String email = authentication.getName();
-        Optional<User> userOpt = userService.getUserByEmail(email);
-        if (userOpt.isPresent()) {
-            return artisanProfileService.getArtisanProfileByUser(userOpt.get());
-        }
-        return Optional.empty();
+        return currentPrincipal.getArtisanProfile();
     }
 
     // Get current user's artisan profile
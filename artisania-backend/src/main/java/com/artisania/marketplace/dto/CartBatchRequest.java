@@ -0,0 +1,32 @@
+package com.artisania.marketplace.dto;
+
+import java.util.List;
+
+/**
+ * Body of PATCH /api/cart/batch: operations are applied in order, all or nothing.
+ */
+public class CartBatchRequest {
+
+    private Long userId;
+    private List<CartOperation> operations;
+
+    // Constructors
+    public CartBatchRequest() {}
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<CartOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<CartOperation> operations) {
+        this.operations = operations;
+    }
+}
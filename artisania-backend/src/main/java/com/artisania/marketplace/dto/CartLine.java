@@ -0,0 +1,175 @@
+package com.artisania.marketplace.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only cart line built by a single JPQL constructor query (cart item, product,
+ * artisan, category and primary image in one row). The JSON mirrors the CartItem
+ * entity so existing clients keep working, plus the computed lineTotal.
+ */
+public class CartLine {
+
+    private final Long id;
+    private final Integer quantity;
+    private final BigDecimal priceAtTime;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final UserSummary user;
+    private final ProductSummary product;
+
+    public CartLine(Long id, Integer quantity, BigDecimal priceAtTime, LocalDateTime createdAt, LocalDateTime updatedAt,
+                    Long userId, String userEmail,
+                    Long productId, String productName, String productDescription, BigDecimal productPrice,
+                    Integer stockQuantity, Boolean isFeatured,
+                    Long artisanId, String artisanDisplayName,
+                    Long categoryId, String categoryName,
+                    String primaryImageUrl) {
+        this.id = id;
+        this.quantity = quantity;
+        this.priceAtTime = priceAtTime;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.user = new UserSummary(userId, userEmail);
+        this.product = new ProductSummary(productId, productName, productDescription, productPrice, stockQuantity,
+                isFeatured, new ProductCard.ArtisanSummary(artisanId, artisanDisplayName),
+                new ProductCard.CategorySummary(categoryId, categoryName), primaryImageUrl);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getPriceAtTime() {
+        return priceAtTime;
+    }
+
+    public BigDecimal getLineTotal() {
+        return priceAtTime.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public UserSummary getUser() {
+        return user;
+    }
+
+    public ProductSummary getProduct() {
+        return product;
+    }
+
+    public static class UserSummary {
+        private final Long id;
+        private final String email;
+
+        public UserSummary(Long id, String email) {
+            this.id = id;
+            this.email = email;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    public static class ProductSummary {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final BigDecimal price;
+        private final Integer stockQuantity;
+        private final Boolean isFeatured;
+        private final ProductCard.ArtisanSummary artisan;
+        private final ProductCard.CategorySummary category;
+        private final String primaryImageUrl;
+
+        public ProductSummary(Long id, String name, String description, BigDecimal price, Integer stockQuantity,
+                              Boolean isFeatured, ProductCard.ArtisanSummary artisan,
+                              ProductCard.CategorySummary category, String primaryImageUrl) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.stockQuantity = stockQuantity;
+            this.isFeatured = isFeatured;
+            this.artisan = artisan;
+            this.category = category;
+            this.primaryImageUrl = primaryImageUrl;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public Integer getStockQuantity() {
+            return stockQuantity;
+        }
+
+        public boolean isInStock() {
+            return stockQuantity != null && stockQuantity > 0;
+        }
+
+        public Boolean getIsFeatured() {
+            return isFeatured;
+        }
+
+        public ProductCard.ArtisanSummary getArtisan() {
+            return artisan;
+        }
+
+        public ProductCard.CategorySummary getCategory() {
+            return category;
+        }
+
+        public String getPrimaryImageUrl() {
+            return primaryImageUrl;
+        }
+
+        // Only the primary image is exposed in the cart
+        public List<ProductCard.ImageSummary> getProductImages() {
+            if (primaryImageUrl == null) {
+                return List.of();
+            }
+            return List.of(new ProductCard.ImageSummary(primaryImageUrl));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CartLine{" +
+                "id=" + id +
+                ", productId=" + product.getId() +
+                ", quantity=" + quantity +
+                ", priceAtTime=" + priceAtTime +
+                '}';
+    }
+}
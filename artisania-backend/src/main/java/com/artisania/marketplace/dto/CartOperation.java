@@ -0,0 +1,57 @@
+package com.artisania.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * One step of a PATCH /api/cart/batch request. Quantity is the amount to add for ADD,
+ * the new quantity for UPDATE, and ignored for REMOVE.
+ */
+public class CartOperation {
+
+    public enum Type {
+        ADD, UPDATE, REMOVE;
+
+        @JsonCreator
+        public static Type fromValue(String value) {
+            return value == null ? null : Type.valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    private Type type;
+    private Long productId;
+    private Integer quantity;
+
+    // Constructors
+    public CartOperation() {}
+
+    public CartOperation(Type type, Long productId, Integer quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
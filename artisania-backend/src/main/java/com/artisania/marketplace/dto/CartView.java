@@ -0,0 +1,38 @@
+package com.artisania.marketplace.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * A user's cart as served to the cart page: lines, grand total and line count,
+ * all computed in memory from the single CartLine query.
+ */
+public class CartView {
+
+    private final List<CartLine> items;
+    private final BigDecimal total;
+    private final long itemCount;
+
+    public CartView(List<CartLine> items) {
+        this.items = items;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (CartLine line : items) {
+            sum = sum.add(line.getLineTotal());
+        }
+        this.total = sum.setScale(2, RoundingMode.HALF_UP);
+        this.itemCount = items.size();
+    }
+
+    public List<CartLine> getItems() {
+        return items;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+}
@@ -0,0 +1,29 @@
+package com.artisania.marketplace.dto;
+
+/**
+ * Number of products matching the current filters for one facet value.
+ */
+public class FacetCount {
+
+    private final String value;
+    private final String label;
+    private final int count;
+
+    public FacetCount(String value, String label, int count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
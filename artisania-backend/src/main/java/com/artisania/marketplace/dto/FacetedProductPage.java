@@ -0,0 +1,65 @@
+package com.artisania.marketplace.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetedProductPage {
+
+    private List<ProductCard> items;
+    private int total;
+    private int page;
+    private int size;
+    private Map<String, List<FacetCount>> facets;
+
+    // Constructors
+    public FacetedProductPage() {}
+
+    public FacetedProductPage(List<ProductCard> items, int total, int page, int size, Map<String, List<FacetCount>> facets) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<ProductCard> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductCard> items) {
+        this.items = items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public Map<String, List<FacetCount>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetCount>> facets) {
+        this.facets = facets;
+    }
+}
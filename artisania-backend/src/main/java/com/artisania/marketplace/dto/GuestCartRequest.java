@@ -0,0 +1,33 @@
+package com.artisania.marketplace.dto;
+
+import java.util.List;
+
+/**
+ * Body of PATCH /api/guest-cart: the current guest cart token (absent for a new cart)
+ * and the operations to apply to it.
+ */
+public class GuestCartRequest {
+
+    private String token;
+    private List<CartOperation> operations;
+
+    // Constructors
+    public GuestCartRequest() {}
+
+    // Getters and Setters
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public List<CartOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<CartOperation> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,164 @@
+package com.artisania.marketplace.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only "product card" used by every product listing endpoint.
+ * Built directly from a single JPQL constructor query, so listing pages never
+ * load full Product graphs. The nested artisan/category/productImages shapes
+ * mirror the Product JSON so existing clients can consume either.
+ */
+public class ProductCard {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final Integer stockQuantity;
+    private final Boolean isFeatured;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final ArtisanSummary artisan;
+    private final CategorySummary category;
+    private final String primaryImageUrl;
+
+    public ProductCard(Long id, String name, String description, BigDecimal price, Integer stockQuantity, Boolean isFeatured,
+                       LocalDateTime createdAt, LocalDateTime updatedAt,
+                       Long artisanId, String artisanDisplayName,
+                       Long categoryId, String categoryName,
+                       String primaryImageUrl) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.isFeatured = isFeatured;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.artisan = new ArtisanSummary(artisanId, artisanDisplayName);
+        this.category = new CategorySummary(categoryId, categoryName);
+        this.primaryImageUrl = primaryImageUrl;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public boolean isInStock() {
+        return stockQuantity != null && stockQuantity > 0;
+    }
+
+    public Boolean getIsFeatured() {
+        return isFeatured;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public ArtisanSummary getArtisan() {
+        return artisan;
+    }
+
+    public CategorySummary getCategory() {
+        return category;
+    }
+
+    public String getPrimaryImageUrl() {
+        return primaryImageUrl;
+    }
+
+    // Only the primary image is exposed on cards
+    public List<ImageSummary> getProductImages() {
+        if (primaryImageUrl == null) {
+            return List.of();
+        }
+        return List.of(new ImageSummary(primaryImageUrl));
+    }
+
+    public static class ArtisanSummary {
+        private final Long id;
+        private final String displayName;
+
+        public ArtisanSummary(Long id, String displayName) {
+            this.id = id;
+            this.displayName = displayName;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    public static class CategorySummary {
+        private final Long id;
+        private final String name;
+
+        public CategorySummary(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class ImageSummary {
+        private final String imageUrl;
+
+        public ImageSummary(String imageUrl) {
+            this.imageUrl = imageUrl;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public Boolean getIsPrimary() {
+            return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProductCard{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", price=" + price +
+                ", stockQuantity=" + stockQuantity +
+                ", isFeatured=" + isFeatured +
+                '}';
+    }
+}
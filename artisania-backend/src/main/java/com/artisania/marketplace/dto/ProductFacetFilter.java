@@ -0,0 +1,84 @@
+package com.artisania.marketplace.dto;
+
+import com.artisania.marketplace.search.PriceBand;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selected facet values for catalog browsing.
+ * Values within one facet are OR-ed, different facets are AND-ed; empty/null means "any".
+ */
+public class ProductFacetFilter {
+
+    private Set<Long> categoryIds = new HashSet<>();
+    private Set<Long> artisanIds = new HashSet<>();
+    private Set<PriceBand> priceBands = EnumSet.noneOf(PriceBand.class);
+    private Boolean inStock;
+    private Boolean featured;
+
+    // Constructors
+    public ProductFacetFilter() {}
+
+    public static ProductFacetFilter of(List<Long> categoryIds, List<Long> artisanIds, List<String> priceBands,
+                                        Boolean inStock, Boolean featured) {
+        ProductFacetFilter filter = new ProductFacetFilter();
+        if (categoryIds != null) {
+            filter.categoryIds.addAll(categoryIds);
+        }
+        if (artisanIds != null) {
+            filter.artisanIds.addAll(artisanIds);
+        }
+        if (priceBands != null) {
+            for (String band : priceBands) {
+                filter.priceBands.add(PriceBand.fromParam(band));
+            }
+        }
+        filter.inStock = inStock;
+        filter.featured = featured;
+        return filter;
+    }
+
+    // Getters and Setters
+    public Set<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public void setCategoryIds(Set<Long> categoryIds) {
+        this.categoryIds = categoryIds;
+    }
+
+    public Set<Long> getArtisanIds() {
+        return artisanIds;
+    }
+
+    public void setArtisanIds(Set<Long> artisanIds) {
+        this.artisanIds = artisanIds;
+    }
+
+    public Set<PriceBand> getPriceBands() {
+        return priceBands;
+    }
+
+    public void setPriceBands(Set<PriceBand> priceBands) {
+        this.priceBands = priceBands;
+    }
+
+    public Boolean getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(Boolean inStock) {
+        this.inStock = inStock;
+    }
+
+    public Boolean getFeatured() {
+        return featured;
+    }
+
+    public void setFeatured(Boolean featured) {
+        this.featured = featured;
+    }
+}
@@ -0,0 +1,62 @@
+package com.artisania.marketplace.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Facet attributes of a product as loaded into the in-memory facet index.
+ */
+public class ProductFacetSource {
+
+    private final Long id;
+    private final Long categoryId;
+    private final String categoryName;
+    private final Long artisanId;
+    private final String artisanDisplayName;
+    private final BigDecimal price;
+    private final Integer stockQuantity;
+    private final Boolean isFeatured;
+
+    public ProductFacetSource(Long id, Long categoryId, String categoryName, Long artisanId, String artisanDisplayName,
+                              BigDecimal price, Integer stockQuantity, Boolean isFeatured) {
+        this.id = id;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.artisanId = artisanId;
+        this.artisanDisplayName = artisanDisplayName;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.isFeatured = isFeatured;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public Long getArtisanId() {
+        return artisanId;
+    }
+
+    public String getArtisanDisplayName() {
+        return artisanDisplayName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public Boolean getIsFeatured() {
+        return isFeatured;
+    }
+}
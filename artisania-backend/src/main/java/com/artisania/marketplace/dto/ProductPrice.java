@@ -0,0 +1,25 @@
+package com.artisania.marketplace.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Current catalog price of a product, as resolved when pricing an order.
+ */
+public class ProductPrice {
+
+    private final Long productId;
+    private final BigDecimal price;
+
+    public ProductPrice(Long productId, BigDecimal price) {
+        this.productId = productId;
+        this.price = price;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,41 @@
+package com.artisania.marketplace.dto;
+
+/**
+ * Text fields of a product as fed into the in-memory search index.
+ */
+public class ProductSearchDocument {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final String categoryName;
+    private final String artisanDisplayName;
+
+    public ProductSearchDocument(Long id, String name, String description, String categoryName, String artisanDisplayName) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.categoryName = categoryName;
+        this.artisanDisplayName = artisanDisplayName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public String getArtisanDisplayName() {
+        return artisanDisplayName;
+    }
+}
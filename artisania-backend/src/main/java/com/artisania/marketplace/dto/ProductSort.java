@@ -0,0 +1,33 @@
+package com.artisania.marketplace.dto;
+
+/**
+ * Stable sort orders supported by the keyset-paginated product catalog.
+ * Every order breaks ties on the product id so the seek position is unique.
+ */
+public enum ProductSort {
+    NEWEST("newest"),
+    PRICE_ASC("price_asc"),
+    PRICE_DESC("price_desc");
+
+    private final String param;
+
+    ProductSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NEWEST;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort order: " + value);
+    }
+}
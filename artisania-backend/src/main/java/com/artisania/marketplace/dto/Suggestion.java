@@ -0,0 +1,57 @@
+package com.artisania.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One typeahead entry returned by /api/suggest.
+ * Type is "product" or "artisan"; id points at the matching resource.
+ */
+public class Suggestion {
+
+    public static final String PRODUCT = "product";
+    public static final String ARTISAN = "artisan";
+
+    private final String type;
+    private final Long id;
+    private final String label;
+    private final long popularity;
+
+    public Suggestion(String type, Long id, String label, long popularity) {
+        this.type = type;
+        this.id = id;
+        this.label = label;
+        this.popularity = popularity;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getPopularity() {
+        return popularity;
+    }
+
+    // Identity of the suggested resource, independent of label and popularity
+    @JsonIgnore
+    public String getKey() {
+        return type + ":" + id;
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{" +
+                "type='" + type + '\'' +
+                ", id=" + id +
+                ", label='" + label + '\'' +
+                ", popularity=" + popularity +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.artisania.marketplace.dto;
+
+/**
+ * Label plus popularity signals for one product or artisan, as loaded for the suggestion index.
+ */
+public class SuggestionSource {
+
+    private final Long id;
+    private final String label;
+    private final long productCount;
+    private final long unitsSold;
+    private final boolean featured;
+
+    // Product row: featured flag and units sold across all orders
+    public SuggestionSource(Long id, String label, Boolean featured, Long unitsSold) {
+        this.id = id;
+        this.label = label;
+        this.productCount = 1;
+        this.unitsSold = unitsSold != null ? unitsSold : 0;
+        this.featured = Boolean.TRUE.equals(featured);
+    }
+
+    // Artisan row: number of products and units sold across all of them
+    public SuggestionSource(Long id, String label, Long productCount, Long unitsSold) {
+        this.id = id;
+        this.label = label;
+        this.productCount = productCount != null ? productCount : 0;
+        this.unitsSold = unitsSold != null ? unitsSold : 0;
+        this.featured = false;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public boolean isFeatured() {
+        return featured;
+    }
+}
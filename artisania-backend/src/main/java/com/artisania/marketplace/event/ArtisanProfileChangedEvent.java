@@ -0,0 +1,39 @@
+package com.artisania.marketplace.event;
+
+/**
+ * Published by ArtisanProfileService when an artisan profile is created, updated or deleted.
+ */
+public class ArtisanProfileChangedEvent {
+
+    private final Long artisanId;
+    private final boolean deleted;
+
+    public ArtisanProfileChangedEvent(Long artisanId, boolean deleted) {
+        this.artisanId = artisanId;
+        this.deleted = deleted;
+    }
+
+    public static ArtisanProfileChangedEvent saved(Long artisanId) {
+        return new ArtisanProfileChangedEvent(artisanId, false);
+    }
+
+    public static ArtisanProfileChangedEvent deleted(Long artisanId) {
+        return new ArtisanProfileChangedEvent(artisanId, true);
+    }
+
+    public Long getArtisanId() {
+        return artisanId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtisanProfileChangedEvent{" +
+                "artisanId=" + artisanId +
+                ", deleted=" + deleted +
+                '}';
+    }
+}
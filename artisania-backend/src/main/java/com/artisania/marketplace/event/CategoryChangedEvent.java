@@ -0,0 +1,24 @@
+package com.artisania.marketplace.event;
+
+/**
+ * Published by CategoryService when a category is renamed or otherwise updated.
+ */
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryChangedEvent{" +
+                "categoryId=" + categoryId +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.artisania.marketplace.event;
+
+/**
+ * Published by ProductService whenever a product row is created, updated or deleted.
+ * Listeners use it to keep in-memory read models (search index, etc.) in sync.
+ */
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        SAVED, DELETED
+    }
+
+    private final Long productId;
+    private final ChangeType changeType;
+
+    public ProductChangedEvent(Long productId, ChangeType changeType) {
+        this.productId = productId;
+        this.changeType = changeType;
+    }
+
+    public static ProductChangedEvent saved(Long productId) {
+        return new ProductChangedEvent(productId, ChangeType.SAVED);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, ChangeType.DELETED);
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public boolean isDeleted() {
+        return changeType == ChangeType.DELETED;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "productId=" + productId +
+                ", changeType=" + changeType +
+                '}';
+    }
+}
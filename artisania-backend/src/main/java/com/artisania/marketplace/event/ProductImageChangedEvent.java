@@ -0,0 +1,24 @@
+package com.artisania.marketplace.event;
+
+/**
+ * Published by ProductImageService when any image of a product is added, changed or removed.
+ */
+public class ProductImageChangedEvent {
+
+    private final Long productId;
+
+    public ProductImageChangedEvent(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductImageChangedEvent{" +
+                "productId=" + productId +
+                '}';
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.math.BigDecimal;
@@ -14,7 +15,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_customer_id", columnList = "customer_id")
+})
 public class Order {
 
     @Id
@@ -73,6 +76,12 @@ public class Order {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Set while the order holds stock taken at creation; only such orders give stock back.
+    // Orders created before stock reservation existed default to false.
+    @JsonIgnore
+    @Column(name = "stock_reserved", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean stockReserved;
+
     // Relationships
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -232,6 +241,14 @@ public class Order {
         this.orderItems = orderItems;
     }
 
+    public boolean isStockReserved() {
+        return stockReserved;
+    }
+
+    public void setStockReserved(boolean stockReserved) {
+        this.stockReserved = stockReserved;
+    }
+
     // Helper methods
     public boolean isGuestOrder() {
         return customer == null && guestEmail != null;
@@ -2,6 +2,9 @@ package com.artisania.marketplace.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import com.artisania.marketplace.config.HibernateCacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -12,7 +15,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_REGION)
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_products_price_id", columnList = "price, id"),
+    @Index(name = "idx_products_artisan_id", columnList = "artisan_id")
+})
 public class Product {
     
     @Id
@@ -20,7 +29,7 @@ public class Product {
     private Long id;
     
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "artisan_id", nullable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "user"})
     private ArtisanProfile artisan;
@@ -61,7 +70,7 @@ public class Product {
     private LocalDateTime updatedAt;
     
     // Relationships
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ProductImage> productImages;
     
     @OneToMany(mappedBy = "product", fetch = FetchType.LAZY)
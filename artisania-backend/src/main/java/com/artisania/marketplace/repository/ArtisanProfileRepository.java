@@ -1,5 +1,6 @@
 package com.artisania.marketplace.repository;
 
+import com.artisania.marketplace.dto.SuggestionSource;
 import com.artisania.marketplace.model.ArtisanProfile;
 import com.artisania.marketplace.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,6 +13,11 @@ import java.util.Optional;
 
 @Repository
 public interface ArtisanProfileRepository extends JpaRepository<ArtisanProfile, Long> {
+
+    // Artisan display name plus popularity signals for the typeahead index
+    String SUGGESTION_SELECT = "SELECT new com.artisania.marketplace.dto.SuggestionSource(" +
+            "ap.id, ap.displayName, COUNT(DISTINCT p.id), SUM(oi.quantity)) " +
+            "FROM ArtisanProfile ap LEFT JOIN ap.products p LEFT JOIN p.orderItems oi ";
     
     // Find by user
     Optional<ArtisanProfile> findByUser(User user);
@@ -21,6 +27,9 @@ public interface ArtisanProfileRepository extends JpaRepository<ArtisanProfile,
     
     // Check if profile exists for user
     boolean existsByUser(User user);
+
+    // Ownership check: profile belongs to the user
+    boolean existsByIdAndUserId(Long id, Long userId);
     
     // Find by display name
     Optional<ArtisanProfile> findByDisplayName(String displayName);
@@ -40,4 +49,11 @@ public interface ArtisanProfileRepository extends JpaRepository<ArtisanProfile,
     @Query("SELECT ap FROM ArtisanProfile ap WHERE " +
            "ap.displayName LIKE %:keyword% OR ap.bio LIKE %:keyword%")
     List<ArtisanProfile> searchArtisanProfiles(@Param("keyword") String keyword);
+
+    // Suggestion sources - display name with product count and units sold
+    @Query(SUGGESTION_SELECT + "GROUP BY ap.id, ap.displayName")
+    List<SuggestionSource> findSuggestionSources();
+
+    @Query(SUGGESTION_SELECT + "WHERE ap.id = :id GROUP BY ap.id, ap.displayName")
+    Optional<SuggestionSource> findSuggestionSourceById(@Param("id") Long id);
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.artisania.marketplace.repository;
 
+import com.artisania.marketplace.dto.CartLine;
 import com.artisania.marketplace.model.CartItem;
 import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.model.Product;
@@ -43,7 +44,42 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Get cart items with product details for a user
     @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product p LEFT JOIN FETCH p.productImages WHERE ci.user.id = :userId ORDER BY ci.createdAt DESC")
     List<CartItem> findByUserIdWithProductDetails(@Param("userId") Long userId);
+
+    // Cart page read model: one row per line, primary image only (no row fan-out per image)
+    @Query("SELECT new com.artisania.marketplace.dto.CartLine(" +
+           "ci.id, ci.quantity, ci.priceAtTime, ci.createdAt, ci.updatedAt, u.id, u.email, " +
+           "p.id, p.name, p.description, p.price, p.stockQuantity, p.isFeatured, " +
+           "a.id, a.displayName, c.id, c.name, pi.imageUrl) " +
+           "FROM CartItem ci JOIN ci.user u JOIN ci.product p JOIN p.artisan a JOIN p.category c " +
+           ProductRepository.PRIMARY_IMAGE_JOIN +
+           "WHERE u.id = :userId ORDER BY ci.createdAt DESC")
+    List<CartLine> findCartLinesByUserId(@Param("userId") Long userId);
     
     // Check if product exists in user's cart
     boolean existsByUserIdAndProductId(Long userId, Long productId);
+
+    /**
+     * Row returned by upsertQuantity. previousCount is the user's line count before the
+     * statement ran (RETURNING subqueries see the pre-insert snapshot).
+     */
+    interface UpsertedLine {
+        Long getId();
+        Integer getQuantity();
+        BigDecimal getPriceAtTime();
+        Boolean getInserted();
+        Long getPreviousCount();
+    }
+
+    // Add to cart in one statement: insert the line priced from the product, or add to the
+    // existing line's quantity. Empty when the product does not exist. PostgreSQL only.
+    @Query(value = "INSERT INTO cart_items (user_id, product_id, quantity, price_at_time, created_at, updated_at) " +
+                   "SELECT :userId, p.id, :quantity, p.price, LOCALTIMESTAMP, LOCALTIMESTAMP FROM products p WHERE p.id = :productId " +
+                   "ON CONFLICT (user_id, product_id) DO UPDATE " +
+                   "SET quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at " +
+                   "RETURNING id AS \"id\", quantity AS \"quantity\", price_at_time AS \"priceAtTime\", " +
+                   "(xmax = 0) AS \"inserted\", " +
+                   "(SELECT COUNT(*) FROM cart_items c WHERE c.user_id = :userId) AS \"previousCount\"",
+           nativeQuery = true)
+    Optional<UpsertedLine> upsertQuantity(@Param("userId") Long userId, @Param("productId") Long productId,
+                                          @Param("quantity") Integer quantity);
 } 
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.artisania.marketplace.repository;
 
 import com.artisania.marketplace.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -34,6 +37,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     // Get all categories ordered by name
     @Query("SELECT c FROM Category c ORDER BY c.name ASC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Category> findAllOrderByName();
     
     // Get categories with products count
@@ -70,4 +70,24 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Find order item by ID
     @Query("SELECT oi FROM OrderItem oi WHERE oi.id = :itemId")
     java.util.Optional<OrderItem> findOrderItemById(@Param("itemId") Long itemId);
+
+    // Authorization checks - one indexed query each, no entity graph is loaded
+
+    // Order belongs to the user, or (for artisans) contains one of the user's products
+    @Query("SELECT CASE WHEN COUNT(o) > 0 THEN true ELSE false END FROM Order o " +
+           "WHERE o.id = :orderId AND (o.customer.id = :userId OR (:includeArtisanItems = true AND EXISTS (" +
+           "SELECT oi.id FROM OrderItem oi WHERE oi.order = o AND oi.product.artisan.user.id = :userId)))")
+    boolean isOrderVisibleToUser(@Param("orderId") Long orderId,
+                                 @Param("userId") Long userId,
+                                 @Param("includeArtisanItems") boolean includeArtisanItems);
+
+    // Order contains at least one product of the artisan user
+    @Query("SELECT CASE WHEN COUNT(oi) > 0 THEN true ELSE false END FROM OrderItem oi " +
+           "WHERE oi.order.id = :orderId AND oi.product.artisan.user.id = :artisanUserId")
+    boolean existsArtisanItemInOrder(@Param("orderId") Long orderId, @Param("artisanUserId") Long artisanUserId);
+
+    // Order item is for a product of the artisan user
+    @Query("SELECT CASE WHEN COUNT(oi) > 0 THEN true ELSE false END FROM OrderItem oi " +
+           "WHERE oi.id = :itemId AND oi.product.artisan.user.id = :artisanUserId")
+    boolean existsOrderItemForArtisan(@Param("itemId") Long itemId, @Param("artisanUserId") Long artisanUserId);
 } 
\ No newline at end of file
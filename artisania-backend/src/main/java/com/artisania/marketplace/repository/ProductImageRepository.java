@@ -55,4 +55,7 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     
     // Check if image URL exists for a product
     boolean existsByProductAndImageUrl(Product product, String imageUrl);
+
+    // Ownership check: image belongs to a product of the artisan user
+    boolean existsByIdAndProductArtisanUserId(Long id, Long artisanUserId);
 }
@@ -1,13 +1,55 @@
 package com.artisania.marketplace.repository;
 
+import com.artisania.marketplace.dto.ProductCard;
+import com.artisania.marketplace.dto.ProductFacetSource;
+import com.artisania.marketplace.dto.ProductPrice;
+import com.artisania.marketplace.dto.ProductSearchDocument;
+import com.artisania.marketplace.dto.SuggestionSource;
 import com.artisania.marketplace.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    // Joins at most one image per product: the lowest-id primary, in case more than one is flagged
+    String PRIMARY_IMAGE_JOIN = "LEFT JOIN p.productImages pi ON pi.id = " +
+            "(SELECT MIN(pi2.id) FROM ProductImage pi2 WHERE pi2.product = p AND pi2.isPrimary = true) ";
+
+    // Shared projection for listing endpoints: one row per product, primary image only
+    String CARD_SELECT = "SELECT new com.artisania.marketplace.dto.ProductCard(" +
+            "p.id, p.name, p.description, p.price, p.stockQuantity, p.isFeatured, p.createdAt, p.updatedAt, " +
+            "a.id, a.displayName, c.id, c.name, pi.imageUrl) " +
+            "FROM Product p JOIN p.artisan a JOIN p.category c " +
+            PRIMARY_IMAGE_JOIN;
+
+    // Text fields fed into the in-memory search index
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.artisania.marketplace.dto.ProductSearchDocument(" +
+            "p.id, p.name, p.description, c.name, a.displayName) " +
+            "FROM Product p JOIN p.artisan a JOIN p.category c ";
+
+    // Facet attributes fed into the in-memory facet index
+    String FACET_SOURCE_SELECT = "SELECT new com.artisania.marketplace.dto.ProductFacetSource(" +
+            "p.id, c.id, c.name, a.id, a.displayName, p.price, p.stockQuantity, p.isFeatured) " +
+            "FROM Product p JOIN p.artisan a JOIN p.category c ";
+
+    // Product name plus popularity signals for the typeahead index
+    String SUGGESTION_SELECT = "SELECT new com.artisania.marketplace.dto.SuggestionSource(" +
+            "p.id, p.name, p.isFeatured, SUM(oi.quantity)) " +
+            "FROM Product p LEFT JOIN p.orderItems oi ";
     
     // Find products by artisan ID
     List<Product> findByArtisanId(Long artisanId);
@@ -15,12 +57,26 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find products by category ID
     List<Product> findByCategoryId(Long categoryId);
     
-    // Find featured products
+    // Find featured products (query cache)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByIsFeaturedTrue();
     
     // Search products by name or description (case insensitive)
     List<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description);
     
+    // Check whether a product is currently featured
+    boolean existsByIdAndIsFeaturedTrue(Long id);
+
+    // Ownership check: product belongs to the artisan user
+    boolean existsByIdAndArtisanUserId(Long id, Long artisanUserId);
+
+    // Batch ownership checks: which of the given ids exist / belong to the artisan user
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.artisan.user.id = :artisanUserId")
+    List<Long> findIdsOwnedByArtisanUser(@Param("ids") Collection<Long> ids, @Param("artisanUserId") Long artisanUserId);
+    
     // Find products by artisan ID and featured status
     List<Product> findByArtisanIdAndIsFeaturedTrue(Long artisanId);
     
@@ -32,4 +88,108 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     // Find products by artisan ID with stock
     List<Product> findByArtisanIdAndStockQuantityGreaterThan(Long artisanId, Integer quantity);
-} 
\ No newline at end of file
+
+    // Load the full product graph (artisan, category, images) for the detail page
+    @EntityGraph(attributePaths = {"artisan", "category", "productImages"})
+    Optional<Product> findWithDetailsById(Long id);
+
+    // Product cards - all products
+    @Query(CARD_SELECT)
+    List<ProductCard> findAllCards();
+
+    // Product cards - by artisan ID
+    @Query(CARD_SELECT + "WHERE a.id = :artisanId")
+    List<ProductCard> findCardsByArtisanId(@Param("artisanId") Long artisanId);
+
+    // Product cards - by category ID
+    @Query(CARD_SELECT + "WHERE c.id = :categoryId")
+    List<ProductCard> findCardsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Product cards - featured products (query cache)
+    @Query(CARD_SELECT + "WHERE p.isFeatured = true")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<ProductCard> findFeaturedCards();
+
+    // Product cards - search by name or description (case insensitive)
+    @Query(CARD_SELECT + "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    List<ProductCard> searchCards(@Param("keyword") String keyword);
+
+    // Product cards - by ID list (order is not preserved)
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<ProductCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Current prices for a set of products (order pricing)
+    @Query("SELECT new com.artisania.marketplace.dto.ProductPrice(p.id, p.price) FROM Product p WHERE p.id IN :ids")
+    List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Search documents - batched full load in id order
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.id > :lastId ORDER BY p.id")
+    List<ProductSearchDocument> findSearchDocumentsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // Search documents - single product
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.id = :id")
+    Optional<ProductSearchDocument> findSearchDocumentById(@Param("id") Long id);
+
+    // Search documents - every product in a category
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE c.id = :categoryId")
+    List<ProductSearchDocument> findSearchDocumentsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Search documents - every product of an artisan
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE a.id = :artisanId")
+    List<ProductSearchDocument> findSearchDocumentsByArtisanId(@Param("artisanId") Long artisanId);
+
+    // Product ids of an artisan (used to clean up read models before a cascading delete)
+    @Query("SELECT p.id FROM Product p WHERE p.artisan.id = :artisanId")
+    List<Long> findIdsByArtisanId(@Param("artisanId") Long artisanId);
+
+    // Facet sources - batched full load in id order
+    @Query(FACET_SOURCE_SELECT + "WHERE p.id > :lastId ORDER BY p.id")
+    List<ProductFacetSource> findFacetSourcesAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(FACET_SOURCE_SELECT + "WHERE p.id = :id")
+    Optional<ProductFacetSource> findFacetSourceById(@Param("id") Long id);
+
+    @Query(FACET_SOURCE_SELECT + "WHERE c.id = :categoryId")
+    List<ProductFacetSource> findFacetSourcesByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(FACET_SOURCE_SELECT + "WHERE a.id = :artisanId")
+    List<ProductFacetSource> findFacetSourcesByArtisanId(@Param("artisanId") Long artisanId);
+
+    // Suggestion sources - product name with featured flag and units sold
+    @Query(SUGGESTION_SELECT + "GROUP BY p.id, p.name, p.isFeatured")
+    List<SuggestionSource> findSuggestionSources();
+
+    @Query(SUGGESTION_SELECT + "WHERE p.id = :id GROUP BY p.id, p.name, p.isFeatured")
+    Optional<SuggestionSource> findSuggestionSourceById(@Param("id") Long id);
+
+    // Keyset pagination - newest first (seek on created_at, id)
+    @Query(CARD_SELECT + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductCard> findNewestFirst(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.createdAt < :createdAt " +
+           "OR (p.createdAt = :createdAt AND p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductCard> findNewestAfter(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    // Keyset pagination - cheapest first (seek on price, id)
+    @Query(CARD_SELECT + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductCard> findPriceAscFirst(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.price > :price " +
+           "OR (p.price = :price AND p.id > :id) ORDER BY p.price ASC, p.id ASC")
+    List<ProductCard> findPriceAscAfter(@Param("price") BigDecimal price,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    // Keyset pagination - most expensive first (seek on price, id)
+    @Query(CARD_SELECT + "ORDER BY p.price DESC, p.id DESC")
+    List<ProductCard> findPriceDescFirst(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.price < :price " +
+           "OR (p.price = :price AND p.id < :id) ORDER BY p.price DESC, p.id DESC")
+    List<ProductCard> findPriceDescAfter(@Param("price") BigDecimal price,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+} 
@@ -0,0 +1,23 @@
+package com.artisania.marketplace.repository;
+
+import com.artisania.marketplace.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // Entries still covering live tokens (loaded into memory at startup)
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    // Drop entries whose tokens have expired anyway
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
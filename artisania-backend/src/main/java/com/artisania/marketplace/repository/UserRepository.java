@@ -1,5 +1,6 @@
 package com.artisania.marketplace.repository;
 
+import com.artisania.marketplace.dto.AuthenticatedUser;
 import com.artisania.marketplace.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -14,6 +15,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Find by email (for login)
     Optional<User> findByEmail(String email);
+
+    // Principal snapshot (no password) used to check token holders' current status
+    @Query("SELECT new com.artisania.marketplace.dto.AuthenticatedUser(u.id, u.email, u.role, u.isActive) FROM User u WHERE u.id = :id")
+    Optional<AuthenticatedUser> findPrincipalById(@Param("id") Long id);
     
     // Check if email exists
     boolean existsByEmail(String email);
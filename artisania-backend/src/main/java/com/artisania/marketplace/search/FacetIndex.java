@@ -0,0 +1,336 @@
+package com.artisania.marketplace.search;
+
+import com.artisania.marketplace.dto.FacetCount;
+import com.artisania.marketplace.dto.ProductFacetFilter;
+import com.artisania.marketplace.dto.ProductFacetSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitset index of product facet attributes (category, artisan, price band, stock, featured).
+ *
+ * Every product gets a dense ordinal; each facet value owns a BitSet of ordinals, so filtering
+ * is a handful of AND/OR operations and a facet count is a cardinality, never a COUNT(*) query.
+ * Ordinals are assigned in ascending product id order, which also gives a stable newest-first
+ * listing by walking the result bits downwards. Deleted products just leave a cleared ordinal
+ * until the next rebuild.
+ */
+@Component
+public class FacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String ARTISAN = "artisan";
+    public static final String PRICE_BAND = "priceBand";
+    public static final String IN_STOCK = "inStock";
+    public static final String FEATURED = "featured";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private ProductFacetSource[] sources = new ProductFacetSource[1024];
+    private int nextOrdinal;
+
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final BitSet featured = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> byArtisan = new HashMap<>();
+    private final Map<PriceBand, BitSet> byPriceBand = new EnumMap<>(PriceBand.class);
+
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, String> artisanNames = new HashMap<>();
+    private volatile boolean ready;
+
+    // Replace the whole index; sources should be ordered by product id
+    public void rebuild(Collection<ProductFacetSource> all) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            productIds = new long[Math.max(1024, all.size() + 256)];
+            sources = new ProductFacetSource[productIds.length];
+            nextOrdinal = 0;
+            live.clear();
+            inStock.clear();
+            featured.clear();
+            byCategory.clear();
+            byArtisan.clear();
+            byPriceBand.clear();
+            categoryNames.clear();
+            artisanNames.clear();
+            for (ProductFacetSource source : all) {
+                putInternal(source);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add or replace a single product
+    public void put(ProductFacetSource source) {
+        lock.writeLock().lock();
+        try {
+            putInternal(source);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal != null) {
+                clearOrdinal(ordinal);
+                sources[ordinal] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Number of products currently in a category
+    public int countInCategory(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = byCategory.get(categoryId);
+            return bits != null ? bits.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of categories holding at least one product
+    public List<Long> categoriesWithProducts() {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            byCategory.forEach((id, bits) -> {
+                if (!bits.isEmpty()) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply the filter and return one page of product ids (newest first) with facet counts.
+     * Counts for a facet are computed with every other facet's filter applied, so selecting
+     * one category still shows how many products the sibling categories would give.
+     */
+    public Result query(ProductFacetFilter filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet categoryMask = union(byCategory, filter.getCategoryIds());
+            BitSet artisanMask = union(byArtisan, filter.getArtisanIds());
+            BitSet priceMask = union(byPriceBand, filter.getPriceBands());
+            BitSet stockMask = flagMask(inStock, filter.getInStock());
+            BitSet featuredMask = flagMask(featured, filter.getFeatured());
+
+            BitSet matches = intersect(categoryMask, artisanMask, priceMask, stockMask, featuredMask);
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, countValues(byCategory, categoryNames,
+                    intersect(null, artisanMask, priceMask, stockMask, featuredMask)));
+            facets.put(ARTISAN, countValues(byArtisan, artisanNames,
+                    intersect(categoryMask, null, priceMask, stockMask, featuredMask)));
+            facets.put(PRICE_BAND, countPriceBands(
+                    intersect(categoryMask, artisanMask, null, stockMask, featuredMask)));
+            facets.put(IN_STOCK, countFlag(inStock,
+                    intersect(categoryMask, artisanMask, priceMask, null, featuredMask)));
+            facets.put(FEATURED, countFlag(featured,
+                    intersect(categoryMask, artisanMask, priceMask, stockMask, null)));
+
+            // A page past the matches is empty; the offset stays a long so deep pages can't wrap around
+            int total = matches.cardinality();
+            if (offset >= total) {
+                return new Result(List.of(), total, facets);
+            }
+            List<Long> page = new ArrayList<>(Math.max(0, limit));
+            long skipped = 0;
+            for (int i = matches.length() - 1; i >= 0 && page.size() < limit; i = matches.previousSetBit(i - 1)) {
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                page.add(productIds[i]);
+            }
+            return new Result(page, total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(ProductFacetSource source) {
+        Integer ordinal = ordinals.get(source.getId());
+        if (ordinal == null) {
+            ordinal = nextOrdinal++;
+            if (ordinal >= productIds.length) {
+                productIds = Arrays.copyOf(productIds, productIds.length * 2);
+                sources = Arrays.copyOf(sources, sources.length * 2);
+            }
+            ordinals.put(source.getId(), ordinal);
+            productIds[ordinal] = source.getId();
+        } else {
+            clearOrdinal(ordinal);
+        }
+        sources[ordinal] = source;
+
+        live.set(ordinal);
+        byCategory.computeIfAbsent(source.getCategoryId(), k -> new BitSet()).set(ordinal);
+        byArtisan.computeIfAbsent(source.getArtisanId(), k -> new BitSet()).set(ordinal);
+        byPriceBand.computeIfAbsent(PriceBand.forPrice(source.getPrice()), k -> new BitSet()).set(ordinal);
+        if (source.getStockQuantity() != null && source.getStockQuantity() > 0) {
+            inStock.set(ordinal);
+        }
+        if (Boolean.TRUE.equals(source.getIsFeatured())) {
+            featured.set(ordinal);
+        }
+        categoryNames.put(source.getCategoryId(), source.getCategoryName());
+        artisanNames.put(source.getArtisanId(), source.getArtisanDisplayName());
+    }
+
+    // Clear every bit the ordinal's previous attributes had set
+    private void clearOrdinal(int ordinal) {
+        ProductFacetSource previous = sources[ordinal];
+        live.clear(ordinal);
+        inStock.clear(ordinal);
+        featured.clear(ordinal);
+        if (previous == null) {
+            return;
+        }
+        clearIn(byCategory, previous.getCategoryId(), ordinal);
+        clearIn(byArtisan, previous.getArtisanId(), ordinal);
+        clearIn(byPriceBand, PriceBand.forPrice(previous.getPrice()), ordinal);
+    }
+
+    private static <K> void clearIn(Map<K, BitSet> index, K key, int ordinal) {
+        BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // OR of the selected values, or null when the facet is not filtered
+    private static <K> BitSet union(Map<K, BitSet> index, Set<K> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (K key : selected) {
+            BitSet bits = index.get(key);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private BitSet flagMask(BitSet flag, Boolean wanted) {
+        if (wanted == null) {
+            return null;
+        }
+        if (wanted) {
+            return flag;
+        }
+        BitSet negated = (BitSet) live.clone();
+        negated.andNot(flag);
+        return negated;
+    }
+
+    private BitSet intersect(BitSet... masks) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static int andCardinality(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) a.clone();
+        copy.and(b);
+        return copy.cardinality();
+    }
+
+    private static List<FacetCount> countValues(Map<Long, BitSet> index, Map<Long, String> labels, BitSet base) {
+        List<FacetCount> counts = new ArrayList<>();
+        index.forEach((id, bits) -> {
+            int count = andCardinality(base, bits);
+            if (count > 0) {
+                counts.add(new FacetCount(String.valueOf(id), labels.get(id), count));
+            }
+        });
+        counts.sort(Comparator.comparingInt(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getValue));
+        return counts;
+    }
+
+    private List<FacetCount> countPriceBands(BitSet base) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (PriceBand band : PriceBand.values()) {
+            BitSet bits = byPriceBand.get(band);
+            int count = bits != null ? andCardinality(base, bits) : 0;
+            counts.add(new FacetCount(band.getParam(), band.getParam(), count));
+        }
+        return counts;
+    }
+
+    private static List<FacetCount> countFlag(BitSet flag, BitSet base) {
+        int yes = andCardinality(base, flag);
+        return List.of(
+                new FacetCount("true", "true", yes),
+                new FacetCount("false", "false", base.cardinality() - yes));
+    }
+
+    /**
+     * One page of matching product ids, the total match count and the facet counts.
+     */
+    public static class Result {
+        private final List<Long> productIds;
+        private final int total;
+        private final Map<String, List<FacetCount>> facets;
+
+        public Result(List<Long> productIds, int total, Map<String, List<FacetCount>> facets) {
+            this.productIds = productIds;
+            this.total = total;
+            this.facets = facets;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, List<FacetCount>> getFacets() {
+            return facets;
+        }
+    }
+}
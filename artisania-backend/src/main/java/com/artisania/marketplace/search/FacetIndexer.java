@@ -0,0 +1,88 @@
+package com.artisania.marketplace.search;
+
+import com.artisania.marketplace.dto.ProductFacetSource;
+import com.artisania.marketplace.event.ArtisanProfileChangedEvent;
+import com.artisania.marketplace.event.CategoryChangedEvent;
+import com.artisania.marketplace.event.ProductChangedEvent;
+import com.artisania.marketplace.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the facet index at startup and applies product changes after commit.
+ * Category and artisan updates only refresh the facet labels of their products.
+ */
+@Component
+public class FacetIndexer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    private final IndexUpdateBuffer updates = new IndexUpdateBuffer();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.currentTimeMillis();
+        List<ProductFacetSource> all = new ArrayList<>();
+        // Changes committed while the rows load are replayed on top of the new index
+        updates.beginBuild();
+        int replayed;
+        try {
+            long lastId = 0L;
+            List<ProductFacetSource> batch;
+            do {
+                batch = productRepository.findFacetSourcesAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+                all.addAll(batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+
+            facetIndex.rebuild(all);
+        } finally {
+            replayed = updates.endBuild();
+        }
+        System.out.println("Facet index built with " + all.size() + " products in " +
+                (System.currentTimeMillis() - start) + " ms, " + replayed + " buffered updates replayed");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        updates.apply(() -> {
+            if (event.isDeleted()) {
+                facetIndex.remove(event.getProductId());
+                return;
+            }
+            productRepository.findFacetSourceById(event.getProductId())
+                    .ifPresentOrElse(facetIndex::put, () -> facetIndex.remove(event.getProductId()));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        updates.apply(() ->
+                productRepository.findFacetSourcesByCategoryId(event.getCategoryId()).forEach(facetIndex::put));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtisanProfileChanged(ArtisanProfileChangedEvent event) {
+        updates.apply(() -> {
+            if (event.isDeleted()) {
+                return;
+            }
+            productRepository.findFacetSourcesByArtisanId(event.getArtisanId()).forEach(facetIndex::put);
+        });
+    }
+}
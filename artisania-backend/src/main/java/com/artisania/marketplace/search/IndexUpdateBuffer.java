@@ -0,0 +1,70 @@
+package com.artisania.marketplace.search;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Holds back incremental index updates while a full build is loading, then replays them
+ * in arrival order once the fresh index is in place.
+ *
+ * A full build reads the table in batches and then swaps the whole index, so an update
+ * applied in the meantime would be overwritten by the (possibly older) rows the build had
+ * already read. Updates re-read their rows when they run, so a replayed update always
+ * applies the committed state.
+ */
+class IndexUpdateBuffer {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean building;
+
+    // Apply an update now, or queue it if a build is in progress
+    void apply(Runnable update) {
+        lock.readLock().lock();
+        try {
+            if (building) {
+                pending.add(update);
+                return;
+            }
+            update.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Start buffering; waits for updates already running so the build reads what they committed
+    void beginBuild() {
+        lock.writeLock().lock();
+        try {
+            building = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replay buffered updates (including ones that arrive during the replay), then stop buffering;
+    // returns the number replayed
+    int endBuild() {
+        int replayed = 0;
+        while (true) {
+            Runnable update;
+            lock.writeLock().lock();
+            try {
+                update = pending.poll();
+                if (update == null) {
+                    building = false;
+                    return replayed;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            replayed++;
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                System.err.println("Buffered index update failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.artisania.marketplace.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed price ranges used as a catalog facet. Lower bound inclusive, upper bound exclusive.
+ */
+public enum PriceBand {
+    UNDER_25("0-25", null, new BigDecimal("25")),
+    FROM_25_TO_50("25-50", new BigDecimal("25"), new BigDecimal("50")),
+    FROM_50_TO_100("50-100", new BigDecimal("50"), new BigDecimal("100")),
+    FROM_100_TO_200("100-200", new BigDecimal("100"), new BigDecimal("200")),
+    OVER_200("200+", new BigDecimal("200"), null);
+
+    private final String param;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceBand(String param, BigDecimal min, BigDecimal max) {
+        this.param = param;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static PriceBand forPrice(BigDecimal price) {
+        if (price == null) {
+            return UNDER_25;
+        }
+        for (PriceBand band : values()) {
+            if ((band.min == null || price.compareTo(band.min) >= 0) &&
+                (band.max == null || price.compareTo(band.max) < 0)) {
+                return band;
+            }
+        }
+        return OVER_200;
+    }
+
+    public static PriceBand fromParam(String value) {
+        for (PriceBand band : values()) {
+            if (band.param.equals(value.trim())) {
+                return band;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported price band: " + value);
+    }
+}
@@ -0,0 +1,273 @@
+package com.artisania.marketplace.search;
+
+import com.artisania.marketplace.dto.ProductSearchDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product text, ranked with BM25.
+ *
+ * Each product is indexed as one weighted bag of terms: name, category name,
+ * artisan display name and description contribute with different boosts.
+ * The last query term is also matched as a prefix so search-as-you-type works.
+ * Reads share a lock; incremental updates and full rebuilds take the write lock.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float ARTISAN_BOOST = 1.5f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    // Prefix matches count for less than an exact term, and are capped per query
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> weighted term frequency), sorted for prefix lookups
+    private TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, IndexedDocument> documents = new HashMap<>();
+    private double totalLength;
+    private volatile boolean ready;
+
+    // Replace the whole index, e.g. at startup
+    public void rebuild(Collection<ProductSearchDocument> source) {
+        TreeMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, IndexedDocument> newDocuments = new HashMap<>(Math.max(16, source.size() * 2));
+        double newTotalLength = 0;
+
+        for (ProductSearchDocument doc : source) {
+            IndexedDocument indexed = analyze(doc);
+            newDocuments.put(doc.getId(), indexed);
+            newTotalLength += indexed.length;
+            addPostings(newPostings, doc.getId(), indexed);
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+            totalLength = newTotalLength;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add or replace a single product
+    public void index(ProductSearchDocument doc) {
+        IndexedDocument indexed = analyze(doc);
+        lock.writeLock().lock();
+        try {
+            removeInternal(doc.getId());
+            documents.put(doc.getId(), indexed);
+            totalLength += indexed.length;
+            addPostings(postings, doc.getId(), indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank products against the query and return one page of ids, best match first.
+     */
+    public SearchResult search(String query, long offset, int limit) {
+        List<String> queryTerms = TextAnalyzer.tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            double avgLength = Math.max(totalLength / docCount, 1.0);
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean last = i == queryTerms.size() - 1;
+                Map<String, Float> expansions = expand(queryTerms.get(i), last);
+
+                // Within one query term keep the best-scoring expansion per product
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+                    Map<Long, Float> posting = postings.get(expansion.getKey());
+                    double idf = idf(docCount, posting.size());
+                    for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+                        IndexedDocument doc = documents.get(entry.getKey());
+                        double tf = entry.getValue();
+                        double norm = tf + K1 * (1 - B + B * doc.length / avgLength);
+                        double score = expansion.getValue() * idf * (tf * (K1 + 1)) / norm;
+                        termScores.merge(entry.getKey(), score, Math::max);
+                    }
+                }
+                termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+            }
+
+            return new SearchResult(topIds(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Exact term, plus prefix completions when this is the term being typed
+    private Map<String, Float> expand(String term, boolean allowPrefix) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (postings.containsKey(term)) {
+            expansions.put(term, 1.0f);
+        }
+        if (allowPrefix && term.length() >= MIN_PREFIX_LENGTH) {
+            SortedMap<String, Map<Long, Float>> tail = postings.subMap(term, term + Character.MAX_VALUE);
+            for (String candidate : tail.keySet()) {
+                if (expansions.size() >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(candidate, PREFIX_WEIGHT);
+            }
+        }
+        return expansions;
+    }
+
+    private static double idf(int docCount, int docFrequency) {
+        return Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    // Bounded heap: only keeps offset + limit candidates instead of sorting every match
+    private static List<Long> topIds(Map<Long, Double> scores, long offset, int limit) {
+        // Checked as a long first: a page past the matches (or past Integer.MAX_VALUE) is empty
+        if (offset >= scores.size()) {
+            return List.of();
+        }
+        int start = (int) offset;
+        int wanted = (int) Math.min(scores.size(), (long) start + limit);
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(wanted + 1, ranking.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking);
+        List<Long> ids = new ArrayList<>(limit);
+        for (int i = start; i < ranked.size(); i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    private void removeInternal(Long productId) {
+        IndexedDocument existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length;
+        for (String term : existing.termFrequencies.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addPostings(TreeMap<String, Map<Long, Float>> target, Long productId, IndexedDocument doc) {
+        for (Map.Entry<String, Float> entry : doc.termFrequencies.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(productId, entry.getValue());
+        }
+    }
+
+    private static IndexedDocument analyze(ProductSearchDocument doc) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addField(frequencies, doc.getName(), NAME_BOOST);
+        length += addField(frequencies, doc.getCategoryName(), CATEGORY_BOOST);
+        length += addField(frequencies, doc.getArtisanDisplayName(), ARTISAN_BOOST);
+        length += addField(frequencies, doc.getDescription(), DESCRIPTION_BOOST);
+        return new IndexedDocument(frequencies, length);
+    }
+
+    private static float addField(Map<String, Float> frequencies, String text, float boost) {
+        List<String> terms = TextAnalyzer.tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, boost, Float::sum);
+        }
+        return terms.size() * boost;
+    }
+
+    private static final class IndexedDocument {
+        private final Map<String, Float> termFrequencies;
+        private final float length;
+
+        private IndexedDocument(Map<String, Float> termFrequencies, float length) {
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    /**
+     * One page of ranked product ids plus the total number of matching products.
+     */
+    public static class SearchResult {
+        private final List<Long> productIds;
+        private final int totalMatches;
+
+        public SearchResult(List<Long> productIds, int totalMatches) {
+            this.productIds = productIds;
+            this.totalMatches = totalMatches;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.artisania.marketplace.search;
+
+import com.artisania.marketplace.dto.ProductSearchDocument;
+import com.artisania.marketplace.event.ArtisanProfileChangedEvent;
+import com.artisania.marketplace.event.CategoryChangedEvent;
+import com.artisania.marketplace.event.ProductChangedEvent;
+import com.artisania.marketplace.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the product search index at startup and keeps it in sync with
+ * product, category and artisan changes once their transaction has committed.
+ */
+@Component
+public class ProductSearchIndexer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private final IndexUpdateBuffer updates = new IndexUpdateBuffer();
+
+    // Build the full index in id order, one batch at a time
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.currentTimeMillis();
+        List<ProductSearchDocument> all = new ArrayList<>();
+        // Changes committed while the rows load are replayed on top of the new index
+        updates.beginBuild();
+        int replayed;
+        try {
+            long lastId = 0L;
+            List<ProductSearchDocument> batch;
+            do {
+                batch = productRepository.findSearchDocumentsAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+                all.addAll(batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+
+            productSearchIndex.rebuild(all);
+        } finally {
+            replayed = updates.endBuild();
+        }
+        System.out.println("Product search index built with " + all.size() + " products in " +
+                (System.currentTimeMillis() - start) + " ms, " + replayed + " buffered updates replayed");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        updates.apply(() -> {
+            if (event.isDeleted()) {
+                productSearchIndex.remove(event.getProductId());
+                return;
+            }
+            productRepository.findSearchDocumentById(event.getProductId())
+                    .ifPresentOrElse(productSearchIndex::index,
+                            () -> productSearchIndex.remove(event.getProductId()));
+        });
+    }
+
+    // A renamed category changes the text of every product in it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        updates.apply(() -> productRepository.findSearchDocumentsByCategoryId(event.getCategoryId())
+                .forEach(productSearchIndex::index));
+    }
+
+    // Artisan display names are indexed with every product; deletes arrive as product events
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtisanProfileChanged(ArtisanProfileChangedEvent event) {
+        updates.apply(() -> {
+            if (event.isDeleted()) {
+                return;
+            }
+            productRepository.findSearchDocumentsByArtisanId(event.getArtisanId())
+                    .forEach(productSearchIndex::index);
+        });
+    }
+}
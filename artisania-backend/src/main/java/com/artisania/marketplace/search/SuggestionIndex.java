@@ -0,0 +1,302 @@
+package com.artisania.marketplace.search;
+
+import com.artisania.marketplace.dto.Suggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie for typeahead over product and artisan names.
+ *
+ * Labels are normalized with TextAnalyzer and inserted once for the full label and
+ * once for each following word, so "bleu" also completes "Bol bleu". Every node caches
+ * the top suggestions of its subtree, so a lookup is a walk down the prefix followed
+ * by an array copy, independent of how many labels share the prefix.
+ */
+@Component
+public class SuggestionIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // How many word starts of a label are indexed in addition to the full label
+    private static final int MAX_WORD_STARTS = 4;
+
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::getPopularity).reversed()
+            .thenComparingInt((Suggestion s) -> s.getLabel().length())
+            .thenComparing(Suggestion::getLabel)
+            .thenComparing(Suggestion::getKey);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    // suggestion key -> indexed entry, so updates can find the trie paths to clean up
+    private Map<String, IndexedSuggestion> entries = new HashMap<>();
+
+    // Replace the whole trie; top lists are computed in a single post-order pass
+    public void rebuild(Collection<Suggestion> suggestions) {
+        Node newRoot = new Node();
+        Map<String, IndexedSuggestion> newEntries = new HashMap<>(Math.max(16, suggestions.size() * 2));
+        for (Suggestion suggestion : suggestions) {
+            IndexedSuggestion indexed = new IndexedSuggestion(suggestion, keysFor(suggestion.getLabel()));
+            newEntries.put(suggestion.getKey(), indexed);
+            for (String key : indexed.keys) {
+                descend(newRoot, key, true, null).addTerminal(suggestion);
+            }
+        }
+        computeTops(newRoot);
+
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            entries = newEntries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a suggestion, replacing any previous label/popularity for the same resource
+    public void put(Suggestion suggestion) {
+        IndexedSuggestion indexed = new IndexedSuggestion(suggestion, keysFor(suggestion.getLabel()));
+        lock.writeLock().lock();
+        try {
+            removeInternal(suggestion.getKey());
+            entries.put(suggestion.getKey(), indexed);
+            for (String key : indexed.keys) {
+                List<Node> path = new ArrayList<>(key.length() + 1);
+                descend(root, key, true, path).addTerminal(suggestion);
+                refreshPath(path, key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String type, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(type + ":" + id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Suggestion get(String type, Long id) {
+        lock.readLock().lock();
+        try {
+            IndexedSuggestion indexed = entries.get(type + ":" + id);
+            return indexed != null ? indexed.suggestion : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Most popular suggestions whose label (or one of its words) starts with the prefix.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = TextAnalyzer.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = descend(root, key, false, null);
+            if (node == null) {
+                return List.of();
+            }
+            Suggestion[] top = node.top;
+            return List.of(Arrays.copyOf(top, Math.min(limit, top.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(String suggestionKey) {
+        IndexedSuggestion existing = entries.remove(suggestionKey);
+        if (existing == null) {
+            return;
+        }
+        for (String key : existing.keys) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = descend(root, key, false, path);
+            if (node != null) {
+                node.removeTerminal(suggestionKey);
+                refreshPath(path, key);
+            }
+        }
+    }
+
+    // Recompute cached tops from the deepest node up, dropping nodes that became empty
+    private static void refreshPath(List<Node> path, String key) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            node.top = mergeTop(node);
+            if (depth > 0 && node.top.length == 0 && node.labels.length == 0) {
+                path.get(depth - 1).removeChild(key.charAt(depth - 1));
+            }
+        }
+    }
+
+    private static void computeTops(Node node) {
+        for (Node child : node.children) {
+            computeTops(child);
+        }
+        node.top = mergeTop(node);
+    }
+
+    private static Suggestion[] mergeTop(Node node) {
+        Map<String, Suggestion> candidates = new LinkedHashMap<>();
+        for (Suggestion suggestion : node.terminals) {
+            candidates.putIfAbsent(suggestion.getKey(), suggestion);
+        }
+        for (Node child : node.children) {
+            for (Suggestion suggestion : child.top) {
+                candidates.putIfAbsent(suggestion.getKey(), suggestion);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return NO_SUGGESTIONS;
+        }
+        Suggestion[] merged = candidates.values().toArray(NO_SUGGESTIONS);
+        Arrays.sort(merged, RANKING);
+        return merged.length > MAX_SUGGESTIONS ? Arrays.copyOf(merged, MAX_SUGGESTIONS) : merged;
+    }
+
+    // Walk (and optionally create) the path for key; path, when given, collects every node visited
+    private static Node descend(Node start, String key, boolean create, List<Node> path) {
+        Node node = start;
+        if (path != null) {
+            path.add(node);
+        }
+        for (int i = 0; i < key.length(); i++) {
+            Node next = node.child(key.charAt(i));
+            if (next == null) {
+                if (!create) {
+                    return null;
+                }
+                next = node.addChild(key.charAt(i));
+            }
+            node = next;
+            if (path != null) {
+                path.add(node);
+            }
+        }
+        return node;
+    }
+
+    // Full normalized label plus the label from each of its next few (non stop word) words
+    private static List<String> keysFor(String label) {
+        String normalized = TextAnalyzer.normalize(label);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        keys.add(normalized);
+        int starts = 0;
+        for (int i = normalized.indexOf(' '); i >= 0 && starts < MAX_WORD_STARTS; i = normalized.indexOf(' ', i + 1)) {
+            String rest = normalized.substring(i + 1);
+            int end = rest.indexOf(' ');
+            String word = end < 0 ? rest : rest.substring(0, end);
+            if (!TextAnalyzer.isStopWord(word)) {
+                keys.add(rest);
+                starts++;
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static final class IndexedSuggestion {
+        private final Suggestion suggestion;
+        private final List<String> keys;
+
+        private IndexedSuggestion(Suggestion suggestion, List<String> keys) {
+            this.suggestion = suggestion;
+            this.keys = keys;
+        }
+    }
+
+    // Children are kept in parallel sorted arrays instead of a map per node
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion[] terminals = NO_SUGGESTIONS;
+        private Suggestion[] top = NO_SUGGESTIONS;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node node = new Node();
+            newLabels[insertAt] = c;
+            newChildren[insertAt] = node;
+            labels = newLabels;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void addTerminal(Suggestion suggestion) {
+            Suggestion[] newTerminals = Arrays.copyOf(terminals, terminals.length + 1);
+            newTerminals[terminals.length] = suggestion;
+            terminals = newTerminals;
+        }
+
+        private void removeTerminal(String suggestionKey) {
+            terminals = Arrays.stream(terminals)
+                    .filter(s -> !s.getKey().equals(suggestionKey))
+                    .toArray(Suggestion[]::new);
+        }
+    }
+}
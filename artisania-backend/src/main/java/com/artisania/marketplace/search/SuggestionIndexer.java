@@ -0,0 +1,98 @@
+package com.artisania.marketplace.search;
+
+import com.artisania.marketplace.dto.Suggestion;
+import com.artisania.marketplace.dto.SuggestionSource;
+import com.artisania.marketplace.event.ArtisanProfileChangedEvent;
+import com.artisania.marketplace.event.ProductChangedEvent;
+import com.artisania.marketplace.repository.ArtisanProfileRepository;
+import com.artisania.marketplace.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads product and artisan names into the suggestion trie at startup and keeps
+ * them current as products and artisan profiles change.
+ *
+ * Popularity is units sold, plus a bonus for featured products and one point per
+ * listed product for artisans.
+ */
+@Component
+public class SuggestionIndexer {
+
+    private static final long FEATURED_BONUS = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ArtisanProfileRepository artisanProfileRepository;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    private final IndexUpdateBuffer updates = new IndexUpdateBuffer();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.currentTimeMillis();
+        List<Suggestion> suggestions = new ArrayList<>();
+        // Changes committed while the rows load are replayed on top of the new index
+        updates.beginBuild();
+        int replayed;
+        try {
+            for (SuggestionSource source : productRepository.findSuggestionSources()) {
+                suggestions.add(toProductSuggestion(source));
+            }
+            for (SuggestionSource source : artisanProfileRepository.findSuggestionSources()) {
+                suggestions.add(toArtisanSuggestion(source));
+            }
+            suggestionIndex.rebuild(suggestions);
+        } finally {
+            replayed = updates.endBuild();
+        }
+        System.out.println("Suggestion index built with " + suggestions.size() + " entries in " +
+                (System.currentTimeMillis() - start) + " ms, " + replayed + " buffered updates replayed");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        updates.apply(() -> {
+            if (event.isDeleted()) {
+                suggestionIndex.remove(Suggestion.PRODUCT, event.getProductId());
+                return;
+            }
+            productRepository.findSuggestionSourceById(event.getProductId())
+                    .ifPresentOrElse(source -> suggestionIndex.put(toProductSuggestion(source)),
+                            () -> suggestionIndex.remove(Suggestion.PRODUCT, event.getProductId()));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtisanProfileChanged(ArtisanProfileChangedEvent event) {
+        updates.apply(() -> {
+            if (event.isDeleted()) {
+                suggestionIndex.remove(Suggestion.ARTISAN, event.getArtisanId());
+                return;
+            }
+            artisanProfileRepository.findSuggestionSourceById(event.getArtisanId())
+                    .ifPresentOrElse(source -> suggestionIndex.put(toArtisanSuggestion(source)),
+                            () -> suggestionIndex.remove(Suggestion.ARTISAN, event.getArtisanId()));
+        });
+    }
+
+    private static Suggestion toProductSuggestion(SuggestionSource source) {
+        long popularity = source.getUnitsSold() + (source.isFeatured() ? FEATURED_BONUS : 0);
+        return new Suggestion(Suggestion.PRODUCT, source.getId(), source.getLabel(), popularity);
+    }
+
+    private static Suggestion toArtisanSuggestion(SuggestionSource source) {
+        long popularity = source.getUnitsSold() + source.getProductCount();
+        return new Suggestion(Suggestion.ARTISAN, source.getId(), source.getLabel(), popularity);
+    }
+}
@@ -0,0 +1,70 @@
+package com.artisania.marketplace.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into index terms: accent folding, lower-casing,
+ * splitting on anything that is not a letter or digit, and dropping
+ * a short list of English/French stop words.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "of", "for", "with", "in", "on", "to", "or",
+            "de", "du", "des", "la", "le", "les", "et", "en", "au", "aux", "un", "une", "l", "d"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    // Lower-case and strip diacritics, e.g. "Poterie Céramique" -> "poterie ceramique"
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Folded words joined by single spaces, stop words kept, e.g. "Bol  d'Argile" -> "bol d argile"
+    public static String normalize(String text) {
+        String folded = fold(text);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        for (String token : TOKEN_SEPARATOR.split(folded)) {
+            if (!token.isEmpty()) {
+                if (normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(token);
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static boolean isStopWord(String term) {
+        return STOP_WORDS.contains(term);
+    }
+
+    // Split folded text into index terms, keeping duplicates so callers can count frequencies
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return terms;
+        }
+        for (String token : TOKEN_SEPARATOR.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
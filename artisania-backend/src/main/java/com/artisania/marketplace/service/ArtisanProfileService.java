@@ -1,12 +1,14 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.artisania.marketplace.event.ArtisanProfileChangedEvent;
+import com.artisania.marketplace.event.ProductChangedEvent;
 import com.artisania.marketplace.model.ArtisanProfile;
 import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.repository.ArtisanProfileRepository;
-import com.artisania.marketplace.repository.UserRepository;
+import com.artisania.marketplace.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,10 +22,16 @@ public class ArtisanProfileService {
     private final ArtisanProfileRepository artisanProfileRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
 
     @Autowired
-    private UserService userService;
+    private CurrentPrincipal currentPrincipal;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ArtisanProfileService(ArtisanProfileRepository artisanProfileRepository) {
@@ -70,6 +78,7 @@ public class ArtisanProfileService {
             }
             
             ArtisanProfile savedProfile = artisanProfileRepository.save(artisanProfile);
+            eventPublisher.publishEvent(ArtisanProfileChangedEvent.saved(savedProfile.getId()));
             
             // Step 3: Return combined response
             return new ArtisanRegistrationResponse(savedUser, savedProfile);
@@ -104,39 +113,27 @@ public class ArtisanProfileService {
         }
     }
 
-    /**
-     * Get the currently authenticated user
-     */
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElse(null);
-    }
-
     /**
      * Create artisan profile for the currently authenticated user
      */
     public ArtisanProfile createArtisanProfileForCurrentUser(String displayName, String bio, String profileImageUrl, String coverImageUrl) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = currentPrincipal.get();
         if (currentUser == null) {
             throw new RuntimeException("Authentication required to create artisan profile");
         }
 
         // Check if user has ARTISAN role
-        if (currentUser.getRole() != User.UserRole.ARTISAN) {
+        if (!currentUser.hasRole(User.UserRole.ARTISAN)) {
             throw new IllegalArgumentException("User must have ARTISAN role to create artisan profile");
         }
 
         // Check if profile already exists for this user
-        if (artisanProfileRepository.existsByUser(currentUser)) {
+        if (currentPrincipal.getArtisanProfile().isPresent()) {
             throw new IllegalArgumentException("Artisan profile already exists for user: " + currentUser.getEmail());
         }
 
         // Create new artisan profile
-        ArtisanProfile artisanProfile = new ArtisanProfile(currentUser, displayName, bio);
+        ArtisanProfile artisanProfile = new ArtisanProfile(currentPrincipal.getUserReference(), displayName, bio);
         if (profileImageUrl != null) {
             artisanProfile.setProfileImageUrl(profileImageUrl);
         }
@@ -144,7 +141,10 @@ public class ArtisanProfileService {
             artisanProfile.setCoverImageUrl(coverImageUrl);
         }
 
-        return artisanProfileRepository.save(artisanProfile);
+        ArtisanProfile savedProfile = artisanProfileRepository.save(artisanProfile);
+        currentPrincipal.setArtisanProfile(savedProfile);
+        eventPublisher.publishEvent(ArtisanProfileChangedEvent.saved(savedProfile.getId()));
+        return savedProfile;
     }
 
     // Get all artisan profiles
@@ -179,7 +179,9 @@ public class ArtisanProfileService {
             throw new IllegalArgumentException("User must have ARTISAN role to create artisan profile");
         }
 
-        return artisanProfileRepository.save(artisanProfile);
+        ArtisanProfile savedProfile = artisanProfileRepository.save(artisanProfile);
+        eventPublisher.publishEvent(ArtisanProfileChangedEvent.saved(savedProfile.getId()));
+        return savedProfile;
     }
 
     // Update artisan profile
@@ -201,7 +203,9 @@ public class ArtisanProfileService {
                 profile.setCoverImageUrl(profileDetails.getCoverImageUrl());
             }
             
-            return artisanProfileRepository.save(profile);
+            ArtisanProfile savedProfile = artisanProfileRepository.save(profile);
+            eventPublisher.publishEvent(ArtisanProfileChangedEvent.saved(savedProfile.getId()));
+            return savedProfile;
         }).orElseThrow(() -> new RuntimeException("Artisan profile not found with id: " + id));
     }
 
@@ -210,7 +214,11 @@ public class ArtisanProfileService {
         if (!artisanProfileRepository.existsById(id)) {
             throw new RuntimeException("Artisan profile not found with id: " + id);
         }
+        // Products are removed by cascade, so collect their ids for the read models first
+        List<Long> productIds = productRepository.findIdsByArtisanId(id);
         artisanProfileRepository.deleteById(id);
+        productIds.forEach(productId -> eventPublisher.publishEvent(ProductChangedEvent.deleted(productId)));
+        eventPublisher.publishEvent(ArtisanProfileChangedEvent.deleted(id));
     }
 
     // Get artisan profile by display name
@@ -0,0 +1,101 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.artisania.marketplace.model.User;
+
+/**
+ * Typed authorization rules used by @Authorize on controller methods.
+ * Role rules only look at the JWT principal; ownership rules take the id of the
+ * guarded resource and delegate to the single-query checks in SecurityService.
+ */
+public enum AuthorizationRule {
+
+    AUTHENTICATED(false) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return user != null;
+        }
+    },
+    ADMIN(false) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return user != null && user.hasRole(User.UserRole.ADMIN);
+        }
+    },
+    ARTISAN(false) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return user != null && user.hasRole(User.UserRole.ARTISAN);
+        }
+    },
+    CUSTOMER(false) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return user != null && user.hasRole(User.UserRole.CUSTOMER);
+        }
+    },
+    ADMIN_OR_ARTISAN(false) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return user != null && (user.hasRole(User.UserRole.ADMIN) || user.hasRole(User.UserRole.ARTISAN));
+        }
+    },
+    EDIT_PRODUCT(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.canEditProduct(user, id);
+        }
+    },
+    EDIT_PRODUCT_IMAGE(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.canEditProductImage(user, id);
+        }
+    },
+    VIEW_ORDER(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.canViewOrder(user, id);
+        }
+    },
+    VIEW_CUSTOMER_ORDERS(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.canViewCustomerOrders(user, id);
+        }
+    },
+    UPDATE_ORDER_STATUS(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.canUpdateOrderStatus(user, id);
+        }
+    },
+    ARTISAN_ORDER(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.artisanHasProductsInOrder(user, id);
+        }
+    },
+    ARTISAN_ORDER_ITEM(true) {
+        @Override
+        public boolean check(SecurityService securityService, AuthenticatedUser user, Long id) {
+            return securityService.artisanOwnsOrderItem(user, id);
+        }
+    };
+
+    private final boolean requiresId;
+
+    AuthorizationRule(boolean requiresId) {
+        this.requiresId = requiresId;
+    }
+
+    public boolean requiresId() {
+        return requiresId;
+    }
+
+    /**
+     * @param user principal of the request, null if anonymous
+     * @param id   id of the guarded resource, null for role rules or when the argument is missing
+     */
+    public abstract boolean check(SecurityService securityService, AuthenticatedUser user, Long id);
+}
@@ -1,23 +1,44 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.dto.CartOperation;
+import com.artisania.marketplace.dto.CartView;
 import com.artisania.marketplace.model.CartItem;
-import com.artisania.marketplace.model.User;
-import com.artisania.marketplace.model.Product;
 import com.artisania.marketplace.repository.CartItemRepository;
 import com.artisania.marketplace.repository.UserRepository;
 import com.artisania.marketplace.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class CartItemService {
 
+    private static final String BATCH_ADD_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity, price_at_time, created_at, updated_at) " +
+            "SELECT ?, p.id, ?, p.price, LOCALTIMESTAMP, LOCALTIMESTAMP FROM products p WHERE p.id = ? " +
+            "ON CONFLICT (user_id, product_id) DO UPDATE " +
+            "SET quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at";
+    // Guest cart tokens can be replayed, so merging keeps the larger quantity instead of adding
+    private static final String GUEST_MERGE_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity, price_at_time, created_at, updated_at) " +
+            "SELECT ?, p.id, ?, p.price, LOCALTIMESTAMP, LOCALTIMESTAMP FROM products p WHERE p.id = ? " +
+            "ON CONFLICT (user_id, product_id) DO UPDATE " +
+            "SET quantity = GREATEST(cart_items.quantity, EXCLUDED.quantity), updated_at = EXCLUDED.updated_at";
+    private static final String BATCH_UPDATE_SQL =
+            "UPDATE cart_items SET quantity = ?, updated_at = LOCALTIMESTAMP WHERE user_id = ? AND product_id = ?";
+    private static final String BATCH_REMOVE_SQL =
+            "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
     @Autowired
     private CartItemRepository cartItemRepository;
 
@@ -27,27 +48,74 @@ public class CartItemService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CartWriteBehindStore cartStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Result of adding to the cart: the saved line and the cart's new line count
+     */
+    public static class AddToCartResult {
+        private final CartItem cartItem;
+        private final long cartCount;
+
+        public AddToCartResult(CartItem cartItem, long cartCount) {
+            this.cartItem = cartItem;
+            this.cartCount = cartCount;
+        }
+
+        public CartItem getCartItem() {
+            return cartItem;
+        }
+
+        public long getCartCount() {
+            return cartCount;
+        }
+    }
+
     // Add item to cart
     public CartItem addToCart(Long userId, Long productId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return addToCartWithCount(userId, productId, quantity).getCartItem();
+    }
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndProductId(userId, productId);
-        
-        if (existingItem.isPresent()) {
-            // Update quantity if item already exists
-            CartItem cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            return cartItemRepository.save(cartItem);
-        } else {
-            // Create new cart item
-            CartItem cartItem = new CartItem(user, product, quantity, product.getPrice());
-            return cartItemRepository.save(cartItem);
+    // Add item to cart and report the new line count, in a single upsert statement
+    public AddToCartResult addToCartWithCount(Long userId, Long productId, Integer quantity) {
+        // The native upsert skips bean validation on CartItem.quantity
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be greater than 0");
+        }
+        cartStore.evict(userId);
+
+        // Concurrent adds of the same product land on the same row instead of racing the unique constraint
+        CartItemRepository.UpsertedLine line;
+        try {
+            line = cartItemRepository.upsertQuantity(userId, productId, quantity)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+        } catch (DataIntegrityViolationException e) {
+            if (isMissingUser(e)) {
+                throw new RuntimeException("User not found");
+            }
+            throw e;
+        }
+
+        // References only: the row already holds everything the caller needs
+        CartItem cartItem = new CartItem(userRepository.getReferenceById(userId),
+                productRepository.getReferenceById(productId), line.getQuantity(), line.getPriceAtTime());
+        cartItem.setId(line.getId());
+        long cartCount = line.getPreviousCount() + (Boolean.TRUE.equals(line.getInserted()) ? 1 : 0);
+        return new AddToCartResult(cartItem, cartCount);
+    }
+
+    // Foreign key violation (SQLSTATE 23503) on cart_items.user_id
+    private static boolean isMissingUser(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && "23503".equals(sql.getSQLState())) {
+                return sql.getMessage() != null && sql.getMessage().contains("(user_id)");
+            }
         }
+        return false;
     }
 
     // Update cart item quantity
@@ -59,12 +127,21 @@ public class CartItemService {
             throw new RuntimeException("Quantity must be greater than 0");
         }
         
+        cartStore.evict(cartItem.getUser().getId());
         cartItem.setQuantity(quantity);
         return cartItemRepository.save(cartItem);
     }
 
     // Update cart item quantity by user and product
     public CartItem updateQuantityByUserAndProduct(Long userId, Long productId, Integer quantity) {
+        // Write-behind: buffered in memory and written with the next flush
+        if (cartStore.isActive()) {
+            if (quantity <= 0) {
+                throw new RuntimeException("Quantity must be greater than 0");
+            }
+            return cartStore.updateQuantity(userId, productId, quantity);
+        }
+
         CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
@@ -76,8 +153,90 @@ public class CartItemService {
         return cartItemRepository.save(cartItem);
     }
 
+    /**
+     * Apply add/update/remove operations in order and return the resulting cart. Each run of
+     * consecutive operations of the same type is one JDBC batch; any failure rolls back all of them.
+     */
+    public CartView applyBatch(Long userId, List<CartOperation> operations) {
+        for (CartOperation operation : operations) {
+            if (operation.getType() == null || operation.getProductId() == null) {
+                throw new RuntimeException("Each operation needs a type and a productId");
+            }
+            if (operation.getType() != CartOperation.Type.REMOVE
+                    && (operation.getQuantity() == null || operation.getQuantity() <= 0)) {
+                throw new RuntimeException("Quantity must be greater than 0");
+            }
+        }
+
+        cartStore.evict(userId);
+
+        int start = 0;
+        while (start < operations.size()) {
+            CartOperation.Type type = operations.get(start).getType();
+            int end = start;
+            List<Object[]> batch = new ArrayList<>();
+            while (end < operations.size() && operations.get(end).getType() == type) {
+                CartOperation operation = operations.get(end);
+                switch (type) {
+                    case ADD -> batch.add(new Object[] { userId, operation.getQuantity(), operation.getProductId() });
+                    case UPDATE -> batch.add(new Object[] { operation.getQuantity(), userId, operation.getProductId() });
+                    case REMOVE -> batch.add(new Object[] { userId, operation.getProductId() });
+                }
+                end++;
+            }
+
+            String sql = switch (type) {
+                case ADD -> BATCH_ADD_SQL;
+                case UPDATE -> BATCH_UPDATE_SQL;
+                case REMOVE -> BATCH_REMOVE_SQL;
+            };
+            int[] counts = jdbcTemplate.batchUpdate(sql, batch);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    Long productId = operations.get(start + i).getProductId();
+                    throw new RuntimeException(type == CartOperation.Type.ADD
+                            ? "Product not found: " + productId
+                            : "Cart item not found for product " + productId);
+                }
+            }
+            start = end;
+        }
+
+        return getCartView(userId);
+    }
+
+    /**
+     * Merge guest cart lines into the user's cart as one batch of upserts, keeping the larger
+     * of the two quantities so that merging the same token twice changes nothing. Lines for
+     * products that no longer exist are skipped.
+     * Returns the number of lines merged.
+     */
+    public int mergeGuestCart(Long userId, Map<Long, Integer> lines) {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        cartStore.evict(userId);
+
+        List<Object[]> batch = new ArrayList<>(lines.size());
+        lines.forEach((productId, quantity) -> batch.add(new Object[] { userId, quantity, productId }));
+        int merged = 0;
+        for (int count : jdbcTemplate.batchUpdate(GUEST_MERGE_SQL, batch)) {
+            if (count != 0) {
+                merged++;
+            }
+        }
+        return merged;
+    }
+
     // Remove item from cart
     public void removeFromCart(Long cartItemId) {
+        if (cartStore.isActive()) {
+            CartItem cartItem = cartItemRepository.findById(cartItemId)
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
+            cartStore.evict(cartItem.getUser().getId());
+            cartItemRepository.delete(cartItem);
+            return;
+        }
         if (!cartItemRepository.existsById(cartItemId)) {
             throw new RuntimeException("Cart item not found");
         }
@@ -86,6 +245,7 @@ public class CartItemService {
 
     // Remove item from cart by user and product
     public void removeFromCartByUserAndProduct(Long userId, Long productId) {
+        cartStore.evict(userId);
         CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         cartItemRepository.delete(cartItem);
@@ -93,9 +253,18 @@ public class CartItemService {
 
     // Get all cart items for a user
     public List<CartItem> getCartItems(Long userId) {
+        cartStore.flush(userId);
         return cartItemRepository.findByUserIdWithProductDetails(userId);
     }
 
+    // Cart page: lines, total and count from a single query. Read-write (the class default) because
+    // buffered write-behind quantities are flushed in this transaction first; the DTO projection
+    // loads no managed entities, so read-only bought nothing here.
+    public CartView getCartView(Long userId) {
+        cartStore.flush(userId);
+        return new CartView(cartItemRepository.findCartLinesByUserId(userId));
+    }
+
     // Get cart item count for a user
     public long getCartItemCount(Long userId) {
         return cartItemRepository.countByUserId(userId);
@@ -103,11 +272,16 @@ public class CartItemService {
 
     // Calculate cart total for a user
     public BigDecimal calculateCartTotal(Long userId) {
+        BigDecimal buffered = cartStore.getTotal(userId);
+        if (buffered != null) {
+            return buffered;
+        }
         return cartItemRepository.calculateCartTotal(userId);
     }
 
     // Clear entire cart for a user
     public void clearCart(Long userId) {
+        cartStore.discard(userId);
         cartItemRepository.deleteByUserId(userId);
     }
 
@@ -118,6 +292,7 @@ public class CartItemService {
 
     // Get specific cart item
     public Optional<CartItem> getCartItem(Long userId, Long productId) {
+        cartStore.flush(userId);
         return cartItemRepository.findByUserIdAndProductId(userId, productId);
     }
 
@@ -126,12 +301,14 @@ public class CartItemService {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
+        cartStore.evict(cartItem.getUser().getId());
         cartItem.setPriceAtTime(cartItem.getProduct().getPrice());
         return cartItemRepository.save(cartItem);
     }
 
     // Sync all cart item prices for a user
     public List<CartItem> syncAllCartItemPrices(Long userId) {
+        cartStore.evict(userId);
         List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
         
         for (CartItem cartItem : cartItems) {
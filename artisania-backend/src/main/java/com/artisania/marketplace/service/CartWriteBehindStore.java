@@ -0,0 +1,749 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.model.CartItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind buffer for cart quantity changes (cart.write-behind.enabled).
+ *
+ * Active carts are held in memory, sharded by user id. Quantity changes on existing lines
+ * only update memory, so a burst of +/- clicks on one line becomes a single UPDATE when
+ * dirty lines are flushed in JDBC batches on a schedule. Carts are also flushed before
+ * they are read or otherwise changed, at checkout and on shutdown.
+ *
+ * Flushes before reads and line changes join the caller's transaction (no second pooled
+ * connection), and the user's cart is guarded until that transaction ends so it can't be
+ * reloaded from a state that is about to change. Database I/O never runs under a shard lock.
+ *
+ * Every buffered change is appended to a local journal before it is acknowledged. After
+ * a crash the journal is replayed into cart_items at startup, so an acknowledged change
+ * is never lost. Confirmed writes and discards append markers that cancel the matching
+ * entries, so a replay never overwrites newer database state with an old quantity.
+ */
+@Service
+public class CartWriteBehindStore {
+
+    private static final String LOAD_SQL =
+            "SELECT id, product_id, quantity, price_at_time FROM cart_items WHERE user_id = ?";
+    private static final String UPDATE_SQL =
+            "UPDATE cart_items SET quantity = ?, updated_at = ? WHERE user_id = ? AND product_id = ?";
+    private static final String FLUSHED_MARKER = "F";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.shards:16}")
+    private int shardCount;
+
+    @Value("${cart.write-behind.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    // Clean carts untouched for this long are dropped from memory
+    @Value("${cart.write-behind.idle-ms:600000}")
+    private long idleMs;
+
+    @Value("${cart.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cart.write-behind.journal:cart-journal.log}")
+    private String journalFile;
+
+    // fsync every journal append; off = the OS decides, which survives a JVM crash but not a power loss
+    @Value("${cart.write-behind.journal-fsync:false}")
+    private boolean journalFsync;
+
+    private Shard[] shards;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService flusher;
+    private volatile boolean active;
+
+    private Path journalPath;
+    private Path flushingPath;
+    private FileChannel journal;
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ConcurrentHashMap<Long, UserGuard> userGuards = new ConcurrentHashMap<>();
+    // Rows of evicted carts written in a caller's transaction that has not ended yet; the
+    // carts are out of the shards, so flushAll journals these again after a rotation
+    private final ConcurrentHashMap<Long, List<Object[]>> unconfirmedEvictions = new ConcurrentHashMap<>();
+
+    private final AtomicLong bufferedChanges = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        journalPath = Paths.get(journalFile).toAbsolutePath();
+        flushingPath = journalPath.resolveSibling(journalPath.getFileName() + ".flushing");
+    }
+
+    // Replay what a previous run left in the journal, then start buffering
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (journalPath.getParent() != null) {
+                Files.createDirectories(journalPath.getParent());
+            }
+            replay(List.of(flushingPath, journalPath));
+            Files.deleteIfExists(flushingPath);
+            Files.deleteIfExists(journalPath);
+            journal = openJournal();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open cart journal " + journalPath, e);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAllQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        active = true;
+        System.out.println("Cart write-behind enabled: " + shards.length + " shards, flush every "
+                + flushIntervalMs + " ms, journal " + journalPath);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        flusher.shutdown();
+        try {
+            flushAll();
+        } finally {
+            closeJournal();
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Buffer a new quantity for an existing cart line. Returns a detached CartItem with the
+     * line's id, quantity and price; throws if the line is not in the user's cart.
+     */
+    public CartItem updateQuantity(Long userId, Long productId, int quantity) {
+        Shard shard = shardFor(userId);
+        lockUser(userId);
+        try {
+            ActiveCart cart = shard.get(userId);
+            if (cart == null) {
+                // Loaded under the user's guard only; adds and removes hold it until they commit,
+                // so the snapshot can't predate a change that is still in flight
+                cart = new ActiveCart(load(userId));
+            }
+
+            shard.lock.lock();
+            try {
+                // Idle eviction may have dropped the (clean) cart meanwhile; ours is still current
+                ActiveCart current = shard.carts.putIfAbsent(userId, cart);
+                if (current != null) {
+                    cart = current;
+                }
+                Line line = cart.lines.get(productId);
+                if (line == null) {
+                    throw new RuntimeException("Cart item not found");
+                }
+                appendToJournal(userId + " " + productId + " " + quantity);
+                line.quantity = quantity;
+                cart.dirty.add(productId);
+                cart.lastAccess = System.currentTimeMillis();
+                bufferedChanges.incrementAndGet();
+
+                CartItem item = new CartItem();
+                item.setId(line.cartItemId);
+                item.setQuantity(quantity);
+                item.setPriceAtTime(line.priceAtTime);
+                return item;
+            } finally {
+                shard.lock.unlock();
+            }
+        } finally {
+            unlockUser(userId);
+        }
+    }
+
+    /**
+     * Cart total including buffered quantities, or null when the cart is not held here
+     */
+    public BigDecimal getTotal(Long userId) {
+        if (!active) {
+            return null;
+        }
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            ActiveCart cart = shard.carts.get(userId);
+            if (cart == null) {
+                return null;
+            }
+            BigDecimal total = BigDecimal.ZERO;
+            for (Line line : cart.lines.values()) {
+                total = total.add(line.priceAtTime.multiply(BigDecimal.valueOf(line.quantity)));
+            }
+            return total.setScale(2, RoundingMode.HALF_UP);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Write the user's buffered changes in the caller's transaction (before reads of
+     * cart_items and at checkout)
+     */
+    public void flush(Long userId) {
+        if (active) {
+            flushUser(userId, false);
+        }
+    }
+
+    /**
+     * Flush and forget the user's cart; used before any change that adds or removes lines.
+     * The cart is not reloaded until the caller's transaction has ended.
+     */
+    public void evict(Long userId) {
+        if (active) {
+            flushUser(userId, true);
+        }
+    }
+
+    /**
+     * Drop the user's buffered changes without writing them (the cart is being cleared)
+     */
+    public void discard(Long userId) {
+        if (!active) {
+            return;
+        }
+        lockUser(userId);
+        Shard shard = shardFor(userId);
+        ActiveCart cart;
+        shard.lock.lock();
+        try {
+            cart = shard.carts.remove(userId);
+        } finally {
+            shard.lock.unlock();
+        }
+        afterCallerTransaction(userId, () -> {
+            if (cart != null) {
+                appendToJournal(FLUSHED_MARKER + " " + userId);
+            }
+        }, () -> restore(userId, cart));
+    }
+
+    private void flushUser(Long userId, boolean remove) {
+        lockUser(userId);
+        Shard shard = shardFor(userId);
+        ActiveCart cart = null;
+        List<Object[]> rows = new ArrayList<>();
+        try {
+            shard.lock.lock();
+            try {
+                cart = remove ? shard.carts.remove(userId) : shard.carts.get(userId);
+                if (cart != null) {
+                    collectDirty(userId, cart, rows);
+                    // Registered before journaling, so a rotation after the append always sees it
+                    if (remove && !rows.isEmpty()) {
+                        unconfirmedEvictions.put(userId, rows);
+                    }
+                    // Journal what is being written: the journal may be rotated before the caller commits
+                    for (Object[] row : rows) {
+                        appendToJournal(row[2] + " " + row[3] + " " + row[0]);
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+
+            // I/O outside the shard lock, on the caller's connection; no transaction means a short one of our own
+            if (!rows.isEmpty()) {
+                if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                    transactionTemplate.executeWithoutResult(status -> write(rows));
+                } else if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                    throw new IllegalStateException("Cart write-behind flush needs a read-write transaction");
+                } else {
+                    write(rows);
+                }
+            }
+        } catch (RuntimeException e) {
+            restore(userId, cart);
+            unconfirmedEvictions.remove(userId);
+            unlockUser(userId);
+            throw e;
+        }
+
+        ActiveCart flushed = cart;
+        afterCallerTransaction(userId, () -> {
+            confirm(userId, flushed, rows);
+            unconfirmedEvictions.remove(userId);
+        }, () -> {
+            restore(userId, flushed);
+            unconfirmedEvictions.remove(userId);
+        });
+    }
+
+    /**
+     * Run onCommit/onRollback when the caller's transaction ends (at once without one), then
+     * release the user's guard taken by the caller
+     */
+    private void afterCallerTransaction(Long userId, Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                onCommit.run();
+            } finally {
+                unlockUser(userId);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit.run();
+                    } else {
+                        onRollback.run();
+                    }
+                } finally {
+                    unlockUser(userId);
+                }
+            }
+        });
+    }
+
+    // Written rows are clean unless changed since they were collected; the markers cancel their journal entries
+    private void confirm(Long userId, ActiveCart cart, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            for (Object[] row : rows) {
+                Line line = cart.lines.get((Long) row[3]);
+                if (line != null && line.quantity == (Integer) row[0]) {
+                    cart.dirty.remove((Long) row[3]);
+                }
+                appendToJournal(FLUSHED_MARKER + " " + userId + " " + row[3] + " " + row[0]);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Nothing reached the database: put the cart back if it was taken out, and journal its
+    // current dirty quantities again in case the journal was rotated in between
+    private void restore(Long userId, ActiveCart cart) {
+        if (cart == null) {
+            return;
+        }
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            ActiveCart current = shard.carts.putIfAbsent(userId, cart);
+            if (current != null && current != cart) {
+                return;
+            }
+            for (Long productId : cart.dirty) {
+                appendToJournal(userId + " " + productId + " " + cart.lines.get(productId).quantity);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Write every dirty line in batches. The journal is rotated first; the rotated file is
+     * deleted once its changes are in the database.
+     *
+     * Each collected cart's user guard is held until the batch has committed, so a per-user
+     * flush can't write a newer quantity in between that this batch would then overwrite.
+     * Carts whose guard is busy are skipped (their owner is flushing or changing them) and
+     * journaled again so the next run picks them up.
+     */
+    public void flushAll() {
+        if (flusher == null) {
+            return;
+        }
+        flushLock.lock();
+        List<Long> guarded = new ArrayList<>();
+        try {
+            rotateJournal();
+            // Evicted carts awaiting their caller's commit are only in the rotated file. Re-journal
+            // them atomically with respect to their removal, which is followed by the confirm
+            // markers or a restore, so an entry can't land after a newer change of the same line.
+            for (Long userId : unconfirmedEvictions.keySet()) {
+                unconfirmedEvictions.computeIfPresent(userId, (id, pending) -> {
+                    for (Object[] row : pending) {
+                        appendToJournal(row[2] + " " + row[3] + " " + row[0]);
+                    }
+                    return pending;
+                });
+            }
+            List<Object[]> rows = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    Iterator<Map.Entry<Long, ActiveCart>> it = shard.carts.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<Long, ActiveCart> entry = it.next();
+                        Long userId = entry.getKey();
+                        ActiveCart cart = entry.getValue();
+                        if (!cart.dirty.isEmpty()) {
+                            if (tryLockUser(userId)) {
+                                guarded.add(userId);
+                                collectDirty(userId, cart, rows);
+                            } else {
+                                for (Long productId : cart.dirty) {
+                                    appendToJournal(userId + " " + productId + " " + cart.lines.get(productId).quantity);
+                                }
+                            }
+                        } else if (now - cart.lastAccess > idleMs) {
+                            it.remove();
+                        }
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int from = 0; from < rows.size(); from += batchSize) {
+                        write(rows.subList(from, Math.min(rows.size(), from + batchSize)));
+                    }
+                });
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                // Lines stay dirty; journal their current quantities (not the collected ones,
+                // which may be older than a later entry) before dropping the rotated file
+                forEachCollectedLine(rows, (row, cart, line) -> {
+                    if (cart.dirty.contains((Long) row[3])) {
+                        appendToJournal(row[2] + " " + row[3] + " " + line.quantity);
+                    }
+                });
+                deleteQuietly(flushingPath);
+                throw e;
+            }
+            forEachCollectedLine(rows, (row, cart, line) -> {
+                if (line.quantity == (Integer) row[0]) {
+                    cart.dirty.remove((Long) row[3]);
+                }
+                appendToJournal(FLUSHED_MARKER + " " + row[2] + " " + row[3] + " " + row[0]);
+            });
+            deleteQuietly(flushingPath);
+            flushes.incrementAndGet();
+        } finally {
+            for (Long userId : guarded) {
+                unlockUser(userId);
+            }
+            flushLock.unlock();
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            System.err.println("Cart write-behind flush failed, will retry: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        int carts = 0;
+        int dirtyLines = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                carts += shard.carts.size();
+                for (ActiveCart cart : shard.carts.values()) {
+                    dirtyLines += cart.dirty.size();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", active);
+        stats.put("activeCarts", carts);
+        stats.put("dirtyLines", dirtyLines);
+        stats.put("bufferedChanges", bufferedChanges.get());
+        stats.put("flushedRows", flushedRows.get());
+        stats.put("flushes", flushes.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        return stats;
+    }
+
+    // --- memory ---
+
+    private Shard shardFor(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+    }
+
+    // Per-user guard, reentrant; the entry is dropped once nobody holds or waits for it
+    private void lockUser(Long userId) {
+        userGuards.compute(userId, (id, guard) -> {
+            UserGuard result = guard == null ? new UserGuard() : guard;
+            result.holders++;
+            return result;
+        }).lock.lock();
+    }
+
+    // Non-blocking variant for the batch flush, which must not wait on a request's transaction
+    private boolean tryLockUser(Long userId) {
+        UserGuard guard = userGuards.compute(userId, (id, existing) -> {
+            UserGuard result = existing == null ? new UserGuard() : existing;
+            result.holders++;
+            return result;
+        });
+        if (guard.lock.tryLock()) {
+            return true;
+        }
+        userGuards.computeIfPresent(userId, (id, existing) -> --existing.holders == 0 ? null : existing);
+        return false;
+    }
+
+    private void unlockUser(Long userId) {
+        userGuards.get(userId).lock.unlock();
+        userGuards.computeIfPresent(userId, (id, guard) -> --guard.holders == 0 ? null : guard);
+    }
+
+    private Map<Long, Line> load(Long userId) {
+        Map<Long, Line> lines = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            lines.put(rs.getLong("product_id"),
+                    new Line(rs.getLong("id"), rs.getInt("quantity"), rs.getBigDecimal("price_at_time")));
+        }, userId);
+        return lines;
+    }
+
+    // Caller holds the shard lock; row = {quantity, updatedAt, userId, productId}. Lines stay
+    // dirty until the write is confirmed.
+    private void collectDirty(Long userId, ActiveCart cart, List<Object[]> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Long productId : cart.dirty) {
+            rows.add(new Object[] { cart.lines.get(productId).quantity, now, userId, productId });
+        }
+    }
+
+    // Visit each collected row whose cart and line are still in memory, under the shard lock
+    private void forEachCollectedLine(List<Object[]> rows, LineVisitor visitor) {
+        for (Object[] row : rows) {
+            Shard shard = shardFor((Long) row[2]);
+            shard.lock.lock();
+            try {
+                ActiveCart cart = shard.carts.get((Long) row[2]);
+                Line line = cart == null ? null : cart.lines.get((Long) row[3]);
+                if (line != null) {
+                    visitor.visit(row, cart, line);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private interface LineVisitor {
+        void visit(Object[] row, ActiveCart cart, Line line);
+    }
+
+    private void write(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        flushedRows.addAndGet(rows.size());
+    }
+
+    // --- journal ---
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void appendToJournal(String entry) {
+        journalLock.lock();
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap((entry + "\n").getBytes(StandardCharsets.US_ASCII));
+            while (bytes.hasRemaining()) {
+                journal.write(bytes);
+            }
+            if (journalFsync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot append to cart journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void rotateJournal() {
+        journalLock.lock();
+        try {
+            journal.close();
+            Files.move(journalPath, flushingPath, StandardCopyOption.REPLACE_EXISTING);
+            journal = openJournal();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot rotate cart journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void closeJournal() {
+        journalLock.lock();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Cannot close cart journal: " + e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Last quantity per (user, product) wins. "F user" cancels the user's earlier entries;
+    // "F user product quantity" says the database holds that quantity, cancelling a matching entry
+    private void replay(List<Path> files) throws IOException {
+        Map<Long, Map<Long, Integer>> pending = new LinkedHashMap<>();
+        for (Path file : files) {
+            if (!Files.exists(file)) {
+                continue;
+            }
+            for (String entry : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+                String[] parts = entry.trim().split(" ");
+                try {
+                    if (parts.length == 2 && parts[0].equals(FLUSHED_MARKER)) {
+                        pending.remove(Long.parseLong(parts[1]));
+                    } else if (parts.length == 4 && parts[0].equals(FLUSHED_MARKER)) {
+                        Map<Long, Integer> lines = pending.get(Long.parseLong(parts[1]));
+                        Long productId = Long.parseLong(parts[2]);
+                        if (lines != null && Integer.valueOf(parts[3]).equals(lines.get(productId))) {
+                            lines.remove(productId);
+                        }
+                    } else if (parts.length == 3) {
+                        pending.computeIfAbsent(Long.parseLong(parts[0]), key -> new HashMap<>())
+                                .put(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+                    }
+                } catch (NumberFormatException e) {
+                    // Torn last line from a crash mid-append
+                }
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        pending.forEach((userId, lines) -> lines.forEach((productId, quantity) ->
+                rows.add(new Object[] { quantity, now, userId, productId })));
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, rows));
+            System.out.println("Cart write-behind: replayed " + rows.size() + " journaled quantity changes");
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Cannot delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, ActiveCart> carts = new HashMap<>();
+
+        ActiveCart get(Long userId) {
+            lock.lock();
+            try {
+                return carts.get(userId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class UserGuard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int holders;
+    }
+
+    private static class ActiveCart {
+        private final Map<Long, Line> lines;
+        private final Set<Long> dirty = new HashSet<>();
+        private long lastAccess = System.currentTimeMillis();
+
+        ActiveCart(Map<Long, Line> lines) {
+            this.lines = lines;
+        }
+    }
+
+    private static class Line {
+        private final Long cartItemId;
+        private final BigDecimal priceAtTime;
+        private int quantity;
+
+        Line(Long cartItemId, int quantity, BigDecimal priceAtTime) {
+            this.cartItemId = cartItemId;
+            this.quantity = quantity;
+            this.priceAtTime = priceAtTime;
+        }
+    }
+}
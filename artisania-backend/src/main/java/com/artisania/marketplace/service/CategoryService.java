@@ -1,8 +1,11 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.event.CategoryChangedEvent;
 import com.artisania.marketplace.model.Category;
 import com.artisania.marketplace.repository.CategoryRepository;
+import com.artisania.marketplace.search.FacetIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,10 +19,15 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FacetIndex facetIndex;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ApplicationEventPublisher eventPublisher,
+                           FacetIndex facetIndex) {
         this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.facetIndex = facetIndex;
     }
 
     // Get all categories (non-paginated - for backward compatibility)
@@ -81,7 +89,9 @@ public class CategoryService {
                 category.setSlug(categoryDetails.getSlug());
             }
             
-            return categoryRepository.save(category);
+            Category saved = categoryRepository.save(category);
+            eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
     }
 
@@ -105,9 +115,12 @@ public class CategoryService {
         return categoryRepository.findAllOrderByName();
     }
 
-    // Get categories with products
+    // Get categories with products (from the facet index once it is loaded)
     public List<Category> getCategoriesWithProducts() {
-        return categoryRepository.findCategoriesWithProducts();
+        if (!facetIndex.isReady()) {
+            return categoryRepository.findCategoriesWithProducts();
+        }
+        return categoryRepository.findAllById(facetIndex.categoriesWithProducts());
     }
 
     // Search categories by name
@@ -120,10 +133,13 @@ public class CategoryService {
         return categoryRepository.findByNameContainingIgnoreCase(name, pageable);
     }
 
-    // Count products in category
+    // Count products in category (from the facet index once it is loaded)
     public Long countProductsInCategory(Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
             .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
+        if (facetIndex.isReady()) {
+            return (long) facetIndex.countInCategory(category.getId());
+        }
         return categoryRepository.countProductsInCategory(category);
     }
 
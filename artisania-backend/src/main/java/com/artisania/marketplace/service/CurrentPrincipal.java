@@ -0,0 +1,108 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.artisania.marketplace.model.ArtisanProfile;
+import com.artisania.marketplace.model.User;
+import com.artisania.marketplace.repository.ArtisanProfileRepository;
+import com.artisania.marketplace.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * The authenticated caller of the current request.
+ *
+ * Identity comes from the JWT principal; the User row and the ArtisanProfile are
+ * loaded lazily, at most once per request, and shared by every service, controller
+ * and @PreAuthorize expression that asks for them.
+ */
+@Service
+@RequestScope
+public class CurrentPrincipal {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ArtisanProfileRepository artisanProfileRepository;
+
+    // Principal the memoized values below belong to
+    private Long resolvedFor;
+    private Optional<User> user;
+    private Optional<ArtisanProfile> artisanProfile;
+
+    /**
+     * Principal of the current request (no database lookup), or null if anonymous
+     */
+    public AuthenticatedUser get() {
+        AuthenticatedUser principal = AuthenticatedUser.current();
+        Long id = principal != null ? principal.getId() : null;
+        if (resolvedFor == null || !resolvedFor.equals(id)) {
+            // Authentication changed within the request (login, logout) - drop what was loaded
+            resolvedFor = id;
+            user = null;
+            artisanProfile = null;
+        }
+        return principal;
+    }
+
+    public Long getId() {
+        AuthenticatedUser principal = get();
+        return principal != null ? principal.getId() : null;
+    }
+
+    public boolean hasRole(User.UserRole role) {
+        AuthenticatedUser principal = get();
+        return principal != null && principal.hasRole(role);
+    }
+
+    /**
+     * User entity of the caller, loaded on first use
+     */
+    public Optional<User> getUser() {
+        AuthenticatedUser principal = get();
+        if (principal == null) {
+            return Optional.empty();
+        }
+        if (user == null) {
+            user = userRepository.findById(principal.getId());
+        }
+        return user;
+    }
+
+    /**
+     * Reference to the caller's User row for associations (no user-table query)
+     */
+    public User getUserReference() {
+        AuthenticatedUser principal = get();
+        if (principal == null) {
+            return null;
+        }
+        if (user != null && user.isPresent()) {
+            return user.get();
+        }
+        return userRepository.getReferenceById(principal.getId());
+    }
+
+    /**
+     * Artisan profile of the caller, loaded on first use
+     */
+    public Optional<ArtisanProfile> getArtisanProfile() {
+        AuthenticatedUser principal = get();
+        if (principal == null) {
+            return Optional.empty();
+        }
+        if (artisanProfile == null) {
+            artisanProfile = artisanProfileRepository.findByUserId(principal.getId());
+        }
+        return artisanProfile;
+    }
+
+    // Keep the memo in step when the caller's profile is created or removed in this request
+    public void setArtisanProfile(ArtisanProfile profile) {
+        get();
+        artisanProfile = Optional.ofNullable(profile);
+    }
+}
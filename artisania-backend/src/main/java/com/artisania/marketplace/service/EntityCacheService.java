@@ -0,0 +1,110 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.config.HibernateCacheConfig;
+import com.artisania.marketplace.model.ArtisanProfile;
+import com.artisania.marketplace.model.Category;
+import com.artisania.marketplace.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class EntityCacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict a product from the second-level cache and drop cached product queries.
+     * Needed after writes that bypass JPA (plain JDBC updates); entity writes are handled by Hibernate.
+     */
+    public void evictProduct(Long productId) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(Product.class, productId);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Evict products from the second-level cache only. Cached entity queries hold ids and see
+     * the fresh rows; evictQueries() is for the callers whose cached projections are affected.
+     */
+    public void evictProducts(Collection<Long> productIds) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        for (Long productId : productIds) {
+            cache.evictEntityData(Product.class, productId);
+        }
+    }
+
+    public void evictQueries() {
+        sessionFactory().getCache().evictQueryRegions();
+    }
+
+    public void evictArtisanProfile(Long artisanProfileId) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(ArtisanProfile.class, artisanProfileId);
+        cache.evictQueryRegions();
+    }
+
+    public void evictCategory(Long categoryId) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(Category.class, categoryId);
+        cache.evictQueryRegions();
+    }
+
+    // Hit/miss/put counts for the whole cache and for each entity region
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+
+        Map<String, Object> secondLevel = new LinkedHashMap<>();
+        secondLevel.put("hits", statistics.getSecondLevelCacheHitCount());
+        secondLevel.put("misses", statistics.getSecondLevelCacheMissCount());
+        secondLevel.put("puts", statistics.getSecondLevelCachePutCount());
+        secondLevel.put("hitRatio", ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+        queryCache.put("hitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : new String[] {
+                HibernateCacheConfig.CATEGORY_REGION,
+                HibernateCacheConfig.ARTISAN_PROFILE_REGION,
+                HibernateCacheConfig.PRODUCT_REGION }) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("hits", regionStatistics.getHitCount());
+            entry.put("misses", regionStatistics.getMissCount());
+            entry.put("puts", regionStatistics.getPutCount());
+            entry.put("hitRatio", ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+            regions.put(region, entry);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("secondLevel", secondLevel);
+        result.put("queryCache", queryCache);
+        result.put("regions", regions);
+        return result;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
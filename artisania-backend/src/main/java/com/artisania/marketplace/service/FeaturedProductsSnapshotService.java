@@ -0,0 +1,192 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.ProductCard;
+import com.artisania.marketplace.event.ArtisanProfileChangedEvent;
+import com.artisania.marketplace.event.CategoryChangedEvent;
+import com.artisania.marketplace.event.ProductChangedEvent;
+import com.artisania.marketplace.event.ProductImageChangedEvent;
+import com.artisania.marketplace.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-serialized JSON of the featured products list, served by GET /api/products/featured.
+ *
+ * Every relevant change bumps a version number; the snapshot is rebuilt lazily on the next
+ * request once its version is behind. Changes that cannot affect the featured list (a
+ * non-featured product, another artisan's profile) leave the snapshot untouched.
+ */
+@Service
+public class FeaturedProductsSnapshotService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Current snapshot, rebuilding it first if it has been invalidated
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+        // ReentrantLock rather than synchronized: the rebuild runs a query, and a virtual
+        // thread blocking inside a monitor would pin its carrier thread
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            long target = version.get();
+            if (current == null || current.version != target) {
+                current = build(target);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Also catches a product that just became featured
+        if (isListed(event.getProductId()) ||
+            (!event.isDeleted() && productRepository.existsByIdAndIsFeaturedTrue(event.getProductId()))) {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductImageChanged(ProductImageChangedEvent event) {
+        if (isListed(event.getProductId())) {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null || current.categoryIds.contains(event.getCategoryId())) {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtisanProfileChanged(ArtisanProfileChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null || current.artisanIds.contains(event.getArtisanId())) {
+            invalidate();
+        }
+    }
+
+    // Whether any of the products may be on the featured list (true before the first build)
+    public boolean listsAnyOf(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            if (isListed(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isListed(Long productId) {
+        Snapshot current = snapshot;
+        return current == null || current.productIds.contains(productId);
+    }
+
+    private Snapshot build(long forVersion) {
+        List<ProductCard> cards = productRepository.findFeaturedCards();
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(cards);
+            return new Snapshot(forVersion, body, strongETag(body),
+                    cards.stream().map(ProductCard::getId).collect(Collectors.toUnmodifiableSet()),
+                    cards.stream().map(card -> card.getCategory().getId()).collect(Collectors.toUnmodifiableSet()),
+                    cards.stream().map(card -> card.getArtisan().getId()).collect(Collectors.toUnmodifiableSet()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize featured products", e);
+        }
+    }
+
+    // Content hash, so identical payloads keep the same ETag across rebuilds and restarts
+    private static String strongETag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Immutable serialized featured list plus the ids it depends on.
+     */
+    public static class Snapshot {
+        private final long version;
+        private final byte[] body;
+        private final String etag;
+        private final Set<Long> productIds;
+        private final Set<Long> categoryIds;
+        private final Set<Long> artisanIds;
+
+        private Snapshot(long version, byte[] body, String etag,
+                         Set<Long> productIds, Set<Long> categoryIds, Set<Long> artisanIds) {
+            this.version = version;
+            this.body = body;
+            this.etag = etag;
+            this.productIds = productIds;
+            this.categoryIds = categoryIds;
+            this.artisanIds = artisanIds;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getETag() {
+            return etag;
+        }
+
+        public int getSize() {
+            return productIds.size();
+        }
+
+        // Handles lists and weak validators in If-None-Match
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
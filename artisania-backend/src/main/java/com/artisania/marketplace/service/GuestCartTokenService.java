@@ -0,0 +1,225 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.CartOperation;
+import com.artisania.marketplace.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stateless guest carts: the cart lives in a signed token held by the browser, so anonymous
+ * browsing needs no server-side storage. The token is URL-safe base64 of
+ *
+ *   version (1 byte) | issued-at epoch seconds (varint) | line count (varint)
+ *   | (product id varint, quantity varint) per line | HMAC-SHA256 truncated to 16 bytes
+ *
+ * which keeps a typical cart well under 100 characters. On login the lines are merged into
+ * cart_items (see CartItemService.mergeGuestCart).
+ */
+@Service
+public class GuestCartTokenService {
+
+    private static final byte VERSION = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final String HMAC = "HmacSHA256";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Defaults to the JWT secret; a separate signing key is derived from it either way
+    @Value("${guest-cart.secret:${JWT_SECRET}}")
+    private String secret;
+
+    @Value("${guest-cart.max-age-days:30}")
+    private long maxAgeDays;
+
+    @Value("${guest-cart.max-lines:50}")
+    private int maxLines;
+
+    @Value("${guest-cart.max-quantity:999}")
+    private int maxQuantity;
+
+    private SecretKeySpec signingKey;
+
+    @PostConstruct
+    public void init() {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC));
+            signingKey = new SecretKeySpec(mac.doFinal("guest-cart".getBytes(StandardCharsets.US_ASCII)), HMAC);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive the guest cart signing key", e);
+        }
+    }
+
+    /**
+     * Lines of a guest cart token (product id -> quantity); empty for a null or blank token
+     */
+    public Map<Long, Integer> decode(String token) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        if (token == null || token.isBlank()) {
+            return lines;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid guest cart token");
+        }
+        if (bytes.length <= MAC_LENGTH) {
+            throw new IllegalArgumentException("Invalid guest cart token");
+        }
+        byte[] payload = Arrays.copyOf(bytes, bytes.length - MAC_LENGTH);
+        byte[] mac = Arrays.copyOfRange(bytes, bytes.length - MAC_LENGTH, bytes.length);
+        if (!MessageDigest.isEqual(mac, sign(payload))) {
+            throw new IllegalArgumentException("Invalid guest cart token");
+        }
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            if (in.get() != VERSION) {
+                throw new IllegalArgumentException("Invalid guest cart token");
+            }
+            long issuedAt = readVarLong(in);
+            if (System.currentTimeMillis() / 1000 - issuedAt > maxAgeDays * 86400) {
+                throw new IllegalArgumentException("Guest cart token has expired");
+            }
+            long count = readVarLong(in);
+            if (count > maxLines) {
+                throw new IllegalArgumentException("Invalid guest cart token");
+            }
+            for (long i = 0; i < count; i++) {
+                lines.put(readVarLong(in), (int) readVarLong(in));
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Invalid guest cart token");
+            }
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid guest cart token");
+        }
+        return lines;
+    }
+
+    /**
+     * Sign the lines into a fresh token (the issued-at time is reset on every change)
+     */
+    public String encode(Map<Long, Integer> lines) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + lines.size() * 6);
+        out.write(VERSION);
+        writeVarLong(out, System.currentTimeMillis() / 1000);
+        writeVarLong(out, lines.size());
+        lines.forEach((productId, quantity) -> {
+            writeVarLong(out, productId);
+            writeVarLong(out, quantity);
+        });
+        byte[] payload = out.toByteArray();
+        out.write(sign(payload), 0, MAC_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * Apply cart operations to a guest cart, with the same rules as PATCH /api/cart/batch.
+     * Added products are checked to exist with one query.
+     */
+    public Map<Long, Integer> apply(Map<Long, Integer> lines, List<CartOperation> operations) {
+        Set<Long> added = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() == null || operation.getProductId() == null) {
+                throw new RuntimeException("Each operation needs a type and a productId");
+            }
+            if (operation.getType() != CartOperation.Type.REMOVE
+                    && (operation.getQuantity() == null || operation.getQuantity() <= 0)) {
+                throw new RuntimeException("Quantity must be greater than 0");
+            }
+            if (operation.getType() != CartOperation.Type.REMOVE && operation.getQuantity() > maxQuantity) {
+                throw new RuntimeException("At most " + maxQuantity + " of a product per cart");
+            }
+            if (operation.getType() == CartOperation.Type.ADD) {
+                added.add(operation.getProductId());
+            }
+        }
+        if (!added.isEmpty()) {
+            Set<Long> missing = new HashSet<>(added);
+            missing.removeAll(productRepository.findExistingIds(added));
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("Product not found: " + missing.iterator().next());
+            }
+        }
+
+        Map<Long, Integer> result = new LinkedHashMap<>(lines);
+        for (CartOperation operation : operations) {
+            Long productId = operation.getProductId();
+            switch (operation.getType()) {
+                // Summed as a long so a large add can't wrap past the limit check below
+                case ADD -> result.merge(productId, operation.getQuantity(),
+                        (current, quantity) -> (int) Math.min(Integer.MAX_VALUE, (long) current + quantity));
+                case UPDATE -> {
+                    if (!result.containsKey(productId)) {
+                        throw new RuntimeException("Cart item not found for product " + productId);
+                    }
+                    result.put(productId, operation.getQuantity());
+                }
+                case REMOVE -> {
+                    if (result.remove(productId) == null) {
+                        throw new RuntimeException("Cart item not found for product " + productId);
+                    }
+                }
+            }
+            if (result.getOrDefault(productId, 0) > maxQuantity) {
+                throw new RuntimeException("At most " + maxQuantity + " of a product per cart");
+            }
+        }
+        if (result.size() > maxLines) {
+            throw new RuntimeException("A guest cart holds at most " + maxLines + " products");
+        }
+        return result;
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(signingKey);
+            return Arrays.copyOf(mac.doFinal(payload), MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign guest cart token", e);
+        }
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit set on all but the last byte
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid guest cart token");
+    }
+}
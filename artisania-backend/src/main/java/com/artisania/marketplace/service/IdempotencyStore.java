@@ -0,0 +1,95 @@
+package com.artisania.marketplace.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Bounded, TTL-evicted store of Idempotency-Key -> first successful response.
+ *
+ * A key is claimed before the request runs, so a retry that races the original sees it
+ * as in progress instead of executing twice. Only successful responses are kept; a failed
+ * attempt releases its claim so the client may retry with the same key.
+ */
+@Service
+public class IdempotencyStore {
+
+    @Value("${idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${idempotency.max-entries:100000}")
+    private long maxEntries;
+
+    private Cache<String, Entry> entries;
+
+    @PostConstruct
+    public void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * Claim a key for a new request. Returns null when the caller now owns the key,
+     * otherwise the existing entry (in progress or completed).
+     */
+    public Entry claim(String key, byte[] requestHash) {
+        Entry pending = new Entry(requestHash, 0, null, null);
+        return entries.asMap().putIfAbsent(key, pending);
+    }
+
+    public void complete(String key, byte[] requestHash, int status, String contentType, byte[] body) {
+        entries.put(key, new Entry(requestHash, status, contentType, body));
+    }
+
+    public void release(String key) {
+        entries.invalidate(key);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Stored response; status 0 means the original request is still running.
+     */
+    public static class Entry {
+        private final byte[] requestHash;
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        public Entry(byte[] requestHash, int status, String contentType, byte[] body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public boolean isInProgress() {
+            return status == 0;
+        }
+
+        public boolean matchesRequest(byte[] otherHash) {
+            return Arrays.equals(requestHash, otherHash);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -11,23 +16,92 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    // Claims carried by every token so requests can be authorized without a user lookup
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String ACTIVE_CLAIM = "active";
+
     @Value("${JWT_SECRET}")
     private String secretKey;
 
-    @Value("${JWT_EXPIRATION}")
+    // Access token lifetime; defaults to JWT_EXPIRATION, set it short once clients use /auth/refresh
+    @Value("${jwt.access-token.expiration-ms:${JWT_EXPIRATION}}")
     private Long jwtExpiration;
 
+    @Value("${jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private long cacheMaxEntries;
+
+    // Key and parser are built once; both are immutable and thread-safe
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+
+    // Verified token -> claims, each entry dropped when its token expires
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        jwtParser = Jwts.parser().verifyWith(signInKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verify a token once and return its claims. Throws a JwtException when the
+     * signature is invalid or the token has expired. Verified tokens are memoized
+     * until they expire, so repeat requests with the same token skip the HMAC check.
+     */
+    public Claims parseToken(String token) {
+        if (!cacheEnabled) {
+            return jwtParser.parseSignedClaims(token).getPayload();
+        }
+
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
 
@@ -35,6 +109,21 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    // Token for an authenticated principal, embedding its id, role and active flag
+    public String generateToken(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        claims.put(ACTIVE_CLAIM, user.isActive());
+        return generateToken(claims, user);
+    }
+
+    // User id claim, or null for tokens issued before the claim existed
+    public Long extractUserId(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        return userId instanceof Number number ? number.longValue() : null;
+    }
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
@@ -47,37 +136,36 @@ public class JwtService {
         return Jwts
                 .builder()
                 .claims(extraClaims)
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Validate already-verified claims against the loaded user
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        if (username == null || !username.equals(userDetails.getUsername()) || isExpired(claims)) {
+            return false;
+        }
+        if (userDetails instanceof AuthenticatedUser user) {
+            // A role change or deactivation since issuance invalidates the token
+            String role = claims.get(ROLE_CLAIM, String.class);
+            if (role != null && !role.equals(user.getRole().name())) {
+                return false;
+            }
+            return user.isActive() && !Boolean.FALSE.equals(claims.get(ACTIVE_CLAIM, Boolean.class));
+        }
+        return true;
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.ProductPrice;
+import com.artisania.marketplace.model.OrderItem;
+import com.artisania.marketplace.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prices orders on the server: current product prices are resolved in one query,
+ * line and order totals use exact BigDecimal arithmetic, and the priced items are
+ * written with one batched insert. Client-supplied prices and totals are ignored.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderPricingService {
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, quantity, price_at_purchase) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Set priceAtPurchase on every item from the current product price and return the order total.
+     */
+    public BigDecimal applyCurrentPrices(List<OrderItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProduct() == null || item.getProduct().getId() == null) {
+                throw new IllegalArgumentException("Order item must reference a product");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Order item quantity must be positive");
+            }
+            productIds.add(item.getProduct().getId());
+        }
+
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (ProductPrice productPrice : productRepository.findPricesByIdIn(productIds)) {
+            prices.put(productPrice.getProductId(), productPrice.getPrice());
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            BigDecimal price = prices.get(item.getProduct().getId());
+            if (price == null) {
+                throw new IllegalArgumentException("Product not found with id: " + item.getProduct().getId());
+            }
+            item.setPriceAtPurchase(price);
+            total = total.add(price.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Insert all priced items of a saved order in one JDBC batch
+    public void insertItems(Long orderId, List<OrderItem> items) {
+        List<Object[]> batch = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            batch.add(new Object[] {
+                    orderId, item.getProduct().getId(), item.getQuantity(), item.getPriceAtPurchase() });
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, batch);
+    }
+}
@@ -1,19 +1,19 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.dto.AuthenticatedUser;
 import com.artisania.marketplace.model.Order;
 import com.artisania.marketplace.model.OrderItem;
-import com.artisania.marketplace.model.Product;
 import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.repository.OrderRepository;
-import com.artisania.marketplace.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,10 +24,19 @@ public class OrderService {
     private final OrderRepository orderRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentPrincipal currentPrincipal;
     
     @Autowired
-    private ProductService productService;
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private OrderPricingService orderPricingService;
+
+    @Autowired
+    private CartWriteBehindStore cartStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public OrderService(OrderRepository orderRepository) {
@@ -35,15 +44,10 @@ public class OrderService {
     }
 
     /**
-     * Get the currently authenticated user
+     * Get the currently authenticated user as an entity reference (no user-table query)
      */
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElse(null);
+        return currentPrincipal.getUserReference();
     }
 
     /**
@@ -55,6 +59,9 @@ public class OrderService {
             throw new RuntimeException("Authentication required to create order");
         }
 
+        // Buffered cart quantities go to the database before the order is placed
+        cartStore.flush(currentUser.getId());
+
         // Associate order with the current user (customer)
         order.setCustomer(currentUser);
         
@@ -105,31 +112,46 @@ public class OrderService {
         return orderRepository.findByGuestEmail(guestEmail);
     }
 
-    // Create new order
+    // Create new order (priced on the server from current product prices)
     public Order createOrder(Order order) {
         // Validate order
         validateOrder(order);
         
+        // Client-supplied item prices and total are replaced by the server-side pricing
+        List<OrderItem> items = order.getOrderItems() != null ? new ArrayList<>(order.getOrderItems()) : List.of();
+        order.setTotalPrice(orderPricingService.applyCurrentPrices(items));
+        
         // Set initial status if not set
         if (order.getStatus() == null) {
             order.setStatus(Order.OrderStatus.PENDING);
         }
         
-        // Handle order items - set the order reference for each item
-        if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
-            for (OrderItem item : order.getOrderItems()) {
-                item.setOrder(order);
-            }
+        // Items are written in one batch once the order has its id
+        order.setOrderItems(new ArrayList<>());
+        Order savedOrder = orderRepository.save(order);
+        orderPricingService.insertItems(savedOrder.getId(), items);
+
+        // Reserve stock last so the product row locks are held only until commit
+        savedOrder.setStockReserved(false);
+        if (savedOrder.getStatus() != Order.OrderStatus.CANCELLED) {
+            stockReservationService.reserve(items);
+            savedOrder.setStockReserved(true);
         }
-        
-        return orderRepository.save(order);
+
+        // Reload so the returned order carries the inserted items
+        entityManager.flush();
+        entityManager.detach(savedOrder);
+        Order createdOrder = orderRepository.findById(savedOrder.getId())
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + savedOrder.getId()));
+        createdOrder.getOrderItems().size(); // load items before the transaction ends
+        return createdOrder;
     }
 
     // Update order
     public Order updateOrder(Long id, Order orderDetails) {
         return orderRepository.findById(id).map(order -> {
             if (orderDetails.getStatus() != null) {
-                order.setStatus(orderDetails.getStatus());
+                changeStatus(order, orderDetails.getStatus());
             }
             
             if (orderDetails.getTotalPrice() != null) {
@@ -166,17 +188,21 @@ public class OrderService {
     // Update order status
     public Order updateOrderStatus(Long id, Order.OrderStatus status) {
         return orderRepository.findById(id).map(order -> {
-            order.setStatus(status);
+            changeStatus(order, status);
             return orderRepository.save(order);
         }).orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
     }
 
     // Delete order
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new RuntimeException("Order not found with id: " + id);
+        Order order = orderRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        
+        // Stock still held by the order goes back on the shelf
+        if (order.isStockReserved()) {
+            stockReservationService.release(order.getOrderItems());
         }
-        orderRepository.deleteById(id);
+        orderRepository.delete(order);
     }
 
     // Get orders by date range
@@ -247,7 +273,8 @@ public class OrderService {
                 throw new IllegalStateException("Cannot cancel order that has been shipped or delivered");
             }
             
-            order.setStatus(Order.OrderStatus.CANCELLED);
+            // Releases the reserved stock (once, even if cancel is called again)
+            changeStatus(order, Order.OrderStatus.CANCELLED);
             return orderRepository.save(order);
         }).orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
     }
@@ -285,8 +312,8 @@ public class OrderService {
      * Get orders containing products from the current artisan
      */
     public List<Order> getOrdersForCurrentArtisan() {
-        User currentArtisan = getCurrentUser();
-        if (currentArtisan == null || !currentArtisan.getRole().equals(User.UserRole.ARTISAN)) {
+        AuthenticatedUser currentArtisan = currentPrincipal.get();
+        if (currentArtisan == null || !currentArtisan.hasRole(User.UserRole.ARTISAN)) {
             throw new RuntimeException("Only artisans can access their orders");
         }
         
@@ -304,8 +331,8 @@ public class OrderService {
      * Get order details with only the current artisan's items
      */
     public Order getOrderWithArtisanItems(Long orderId) {
-        User currentArtisan = getCurrentUser();
-        if (currentArtisan == null || !currentArtisan.getRole().equals(User.UserRole.ARTISAN)) {
+        AuthenticatedUser currentArtisan = currentPrincipal.get();
+        if (currentArtisan == null || !currentArtisan.hasRole(User.UserRole.ARTISAN)) {
             throw new RuntimeException("Only artisans can access order details");
         }
 
@@ -345,7 +372,7 @@ public class OrderService {
     /**
      * Update status of a specific order item
      * For now, this updates the entire order status (MVP approach)
-     * Automatically reduces stock when order is marked as DELIVERED
+     * Stock was already reserved when the order was created; cancelling releases it
      */
     public void updateOrderItemStatus(Long itemId, Order.OrderStatus status) {
         // For MVP, we'll update the entire order status when any item status changes
@@ -355,33 +382,10 @@ public class OrderService {
             .orElseThrow(() -> new RuntimeException("Order item not found"));
         
         Order order = item.getOrder();
-        Order.OrderStatus previousStatus = order.getStatus();
         
         // Update order status
-        order.setStatus(status);
+        changeStatus(order, status);
         orderRepository.save(order);
-        
-        // If status changed to DELIVERED, reduce stock for all items in the order
-        if (status == Order.OrderStatus.DELIVERED && previousStatus != Order.OrderStatus.DELIVERED) {
-            for (OrderItem orderItem : order.getOrderItems()) {
-                try {
-                    Product product = orderItem.getProduct();
-                    int currentStock = product.getStockQuantity();
-                    int orderedQuantity = orderItem.getQuantity();
-                    int newStock = Math.max(0, currentStock - orderedQuantity); // Ensure stock doesn't go negative
-                    
-                    // Update product stock
-                    productService.updateProductStock(product.getId(), newStock);
-                    
-                    System.out.println("Stock updated for product '" + product.getName() + 
-                        "': " + currentStock + " -> " + newStock + " (reduced by " + orderedQuantity + ")");
-                        
-                } catch (Exception e) {
-                    System.err.println("Failed to update stock for order item " + orderItem.getId() + ": " + e.getMessage());
-                    // Log error but don't fail the status update
-                }
-            }
-        }
     }
 
     /**
@@ -392,11 +396,29 @@ public class OrderService {
     }
 
     // Private helper methods
-    private void validateOrder(Order order) {
-        if (order.getTotalPrice() == null || order.getTotalPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Order total price must be greater than zero");
-        }
 
+    // Apply a status change, keeping reserved stock in step with it. Only orders that hold a
+    // reservation release stock; once shipped the goods have left, so the reservation is
+    // consumed and a later cancel (or delete) gives nothing back.
+    private void changeStatus(Order order, Order.OrderStatus status) {
+        Order.OrderStatus previousStatus = order.getStatus();
+        if (status == Order.OrderStatus.CANCELLED) {
+            if (order.isStockReserved()) {
+                stockReservationService.release(order.getOrderItems());
+                order.setStockReserved(false);
+            }
+        } else {
+            if (previousStatus == Order.OrderStatus.CANCELLED && !order.isStockReserved()) {
+                stockReservationService.reserve(order.getOrderItems());
+                order.setStockReserved(true);
+            }
+            if (status == Order.OrderStatus.SHIPPED || status == Order.OrderStatus.DELIVERED) {
+                order.setStockReserved(false);
+            }
+        }
+        order.setStatus(status);
+    }
+    private void validateOrder(Order order) {
         if (order.getShippingName() == null || order.getShippingName().trim().isEmpty()) {
             throw new IllegalArgumentException("Shipping name is required");
         }
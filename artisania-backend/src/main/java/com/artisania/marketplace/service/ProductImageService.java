@@ -1,10 +1,12 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.event.ProductImageChangedEvent;
 import com.artisania.marketplace.model.Product;
 import com.artisania.marketplace.model.ProductImage;
 import com.artisania.marketplace.repository.ProductImageRepository;
 import com.artisania.marketplace.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,12 +19,15 @@ public class ProductImageService {
 
     private final ProductImageRepository productImageRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ProductImageService(ProductImageRepository productImageRepository, 
-                              ProductRepository productRepository) {
+                              ProductRepository productRepository,
+                              ApplicationEventPublisher eventPublisher) {
         this.productImageRepository = productImageRepository;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // Get all product images
@@ -77,7 +82,9 @@ public class ProductImageService {
             productImageRepository.setAllImagesAsNonPrimary(productImage.getProduct());
         }
 
-        return productImageRepository.save(productImage);
+        ProductImage saved = productImageRepository.save(productImage);
+        publishImageChange(saved.getProduct().getId());
+        return saved;
     }
 
     // Add product image by product ID
@@ -110,7 +117,9 @@ public class ProductImageService {
                 productImage.setIsPrimary(imageDetails.getIsPrimary());
             }
             
-            return productImageRepository.save(productImage);
+            ProductImage saved = productImageRepository.save(productImage);
+            publishImageChange(saved.getProduct().getId());
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Product image not found with id: " + id));
     }
 
@@ -122,7 +131,9 @@ public class ProductImageService {
             
             // Then set this image as primary
             productImage.setIsPrimary(true);
-            return productImageRepository.save(productImage);
+            ProductImage saved = productImageRepository.save(productImage);
+            publishImageChange(saved.getProduct().getId());
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Product image not found with id: " + imageId));
     }
 
@@ -130,7 +141,9 @@ public class ProductImageService {
     public ProductImage setAsNonPrimary(Long imageId) {
         return productImageRepository.findById(imageId).map(productImage -> {
             productImage.setIsPrimary(false);
-            return productImageRepository.save(productImage);
+            ProductImage saved = productImageRepository.save(productImage);
+            publishImageChange(saved.getProduct().getId());
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Product image not found with id: " + imageId));
     }
 
@@ -153,16 +166,19 @@ public class ProductImageService {
                 productImageRepository.save(firstImage);
             }
         }
+        publishImageChange(product.getId());
     }
 
     // Delete all images for a product
     public void deleteAllImagesByProduct(Product product) {
         productImageRepository.deleteByProduct(product);
+        publishImageChange(product.getId());
     }
 
     // Delete all images for a product by product ID
     public void deleteAllImagesByProductId(Long productId) {
         productImageRepository.deleteByProductId(productId);
+        publishImageChange(productId);
     }
 
     // Count images for a product
@@ -238,6 +254,12 @@ public class ProductImageService {
             savedImages.add(productImageRepository.save(productImage));
         }
         
+        publishImageChange(productId);
         return savedImages;
     }
+
+    // Let read models that embed images (e.g. the featured snapshot) refresh after commit
+    private void publishImageChange(Long productId) {
+        eventPublisher.publishEvent(new ProductImageChangedEvent(productId));
+    }
 }
@@ -1,20 +1,38 @@
 package com.artisania.marketplace.service;
 
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.artisania.marketplace.dto.CursorPage;
+import com.artisania.marketplace.dto.FacetedProductPage;
+import com.artisania.marketplace.dto.ProductFacetFilter;
+import com.artisania.marketplace.dto.ProductCard;
+import com.artisania.marketplace.dto.ProductSort;
+import com.artisania.marketplace.event.ProductChangedEvent;
 import com.artisania.marketplace.model.Product;
-import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.model.ArtisanProfile;
 import com.artisania.marketplace.model.Category;
 import com.artisania.marketplace.repository.ProductRepository;
-import com.artisania.marketplace.repository.ArtisanProfileRepository;
-import com.artisania.marketplace.repository.UserRepository;
 import com.artisania.marketplace.repository.CategoryRepository;
+import com.artisania.marketplace.search.FacetIndex;
+import com.artisania.marketplace.search.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -25,37 +43,37 @@ public class ProductService {
     private ProductRepository productRepository;
 
     @Autowired
-    private ArtisanProfileRepository artisanProfileRepository;
+    private CurrentPrincipal currentPrincipal;
 
     @Autowired
-    private UserRepository userRepository;
+    private CategoryRepository categoryRepository;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private ProductSearchIndex productSearchIndex;
 
-    /**
-     * Get the currently authenticated user
-     */
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElse(null);
-    }
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.page-size.default:24}")
+    private int defaultPageSize;
+
+    @Value("${catalog.page-size.max:100}")
+    private int maxPageSize;
 
     /**
      * Create a new product and automatically associate it with the authenticated artisan
      */
     public Product createProduct(Product product) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = currentPrincipal.get();
         if (currentUser == null) {
             throw new RuntimeException("Authentication required to create product");
         }
 
         // Get the artisan profile for the current user
-        Optional<ArtisanProfile> artisanProfile = artisanProfileRepository.findByUserId(currentUser.getId());
+        Optional<ArtisanProfile> artisanProfile = currentPrincipal.getArtisanProfile();
         if (artisanProfile.isEmpty()) {
             throw new RuntimeException("User must have an artisan profile to create products");
         }
@@ -77,47 +95,144 @@ public class ProductService {
         // Associate product with the artisan
         product.setArtisan(artisanProfile.get());
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved.getId()));
+        return saved;
     }
 
-    // Get all products
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    // Get all products as listing cards
+    @Transactional(readOnly = true)
+    public List<ProductCard> getAllProducts() {
+        return productRepository.findAllCards();
     }
 
-    // Get product by ID
+    /**
+     * Get one page of the catalog using keyset (seek) pagination.
+     * The cursor is the opaque value returned as nextCursor by the previous page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductCard> getProductPage(String sortParam, String cursor, Integer size) {
+        ProductSort sort = ProductSort.fromParam(sortParam);
+        int pageSize = resolvePageSize(size);
+
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ProductCard> rows;
+
+        if (cursor == null || cursor.trim().isEmpty()) {
+            rows = switch (sort) {
+                case NEWEST -> productRepository.findNewestFirst(limit);
+                case PRICE_ASC -> productRepository.findPriceAscFirst(limit);
+                case PRICE_DESC -> productRepository.findPriceDescFirst(limit);
+            };
+        } else {
+            String[] position = decodeCursor(cursor, sort);
+            Long lastId = Long.valueOf(position[1]);
+            rows = switch (sort) {
+                case NEWEST -> productRepository.findNewestAfter(LocalDateTime.parse(position[0]), lastId, limit);
+                case PRICE_ASC -> productRepository.findPriceAscAfter(new BigDecimal(position[0]), lastId, limit);
+                case PRICE_DESC -> productRepository.findPriceDescAfter(new BigDecimal(position[0]), lastId, limit);
+            };
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductCard> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductCard last = items.get(items.size() - 1);
+            String sortKey = sort == ProductSort.NEWEST ? last.getCreatedAt().toString() : last.getPrice().toPlainString();
+            nextCursor = encodeCursor(sort, sortKey, last.getId());
+        }
+
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore, pageSize, sort.getParam());
+    }
+
+    // Get product by ID with its full graph (artisan, category, images)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productRepository.findWithDetailsById(id);
     }
 
     // Save product (create or update)
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved.getId()));
+        return saved;
     }
 
     // Delete product
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     // Get products by artisan ID
-    public List<Product> getProductsByArtisanId(Long artisanId) {
-        return productRepository.findByArtisanId(artisanId);
+    @Transactional(readOnly = true)
+    public List<ProductCard> getProductsByArtisanId(Long artisanId) {
+        return productRepository.findCardsByArtisanId(artisanId);
     }
 
     // Get products by category ID
-    public List<Product> getProductsByCategoryId(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId);
+    @Transactional(readOnly = true)
+    public List<ProductCard> getProductsByCategoryId(Long categoryId) {
+        return productRepository.findCardsByCategoryId(categoryId);
     }
 
     // Get featured products
-    public List<Product> getFeaturedProducts() {
-        return productRepository.findByIsFeaturedTrue();
+    @Transactional(readOnly = true)
+    public List<ProductCard> getFeaturedProducts() {
+        return productRepository.findFeaturedCards();
+    }
+
+    /**
+     * Full-text search over name, description, category and artisan name, best match first.
+     * Falls back to a LIKE query only while the search index is still being built at startup.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductCard> searchProducts(String keyword, Integer page, Integer size) {
+        int pageSize = resolvePageSize(size);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
+
+        if (!productSearchIndex.isReady()) {
+            List<ProductCard> matches = productRepository.searchCards(keyword);
+            int from = (int) Math.min(pageRequest.getOffset(), matches.size());
+            int to = Math.min(from + pageSize, matches.size());
+            return new PageImpl<>(matches.subList(from, to), pageRequest, matches.size());
+        }
+
+        ProductSearchIndex.SearchResult result =
+                productSearchIndex.search(keyword, pageRequest.getOffset(), pageSize);
+        if (result.getProductIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, result.getTotalMatches());
+        }
+
+        // Cards come back in database order; restore the ranking
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < result.getProductIds().size(); i++) {
+            rank.put(result.getProductIds().get(i), i);
+        }
+        List<ProductCard> cards = new ArrayList<>(productRepository.findCardsByIdIn(result.getProductIds()));
+        cards.sort(Comparator.comparing(card -> rank.get(card.getId())));
+        return new PageImpl<>(cards, pageRequest, result.getTotalMatches());
     }
 
-    // Search products by name or description
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(keyword, keyword);
+    /**
+     * Filter the catalog by facets (category, artisan, price band, stock, featured), newest first,
+     * with per-value counts for each facet. Filtering and counting are served from the facet index.
+     */
+    @Transactional(readOnly = true)
+    public FacetedProductPage getFacetedProducts(ProductFacetFilter filter, Integer page, Integer size) {
+        if (!facetIndex.isReady()) {
+            throw new IllegalStateException("Catalog facets are still loading, please retry shortly");
+        }
+        int pageSize = resolvePageSize(size);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+
+        FacetIndex.Result result = facetIndex.query(filter, (long) pageNumber * pageSize, pageSize);
+        List<ProductCard> cards = new ArrayList<>(productRepository.findCardsByIdIn(result.getProductIds()));
+        cards.sort(Comparator.comparing(ProductCard::getId).reversed());
+        return new FacetedProductPage(cards, result.getTotal(), pageNumber, pageSize, result.getFacets());
     }
 
     // Get products with stock
@@ -141,8 +256,43 @@ public class ProductService {
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
             product.setStockQuantity(newStock);
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(saved.getId()));
+            return saved;
         }
         throw new RuntimeException("Product not found with id: " + id);
     }
-} 
\ No newline at end of file
+
+    // Clamp requested page size to the configured bounds
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private String encodeCursor(ProductSort sort, String sortKey, Long id) {
+        String raw = sort.getParam() + "|" + sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor, ProductSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !parts[0].equals(sort.getParam())) {
+                throw new IllegalArgumentException("Cursor does not match sort order: " + sort.getParam());
+            }
+            // Validate both seek values up front so a tampered cursor fails as a bad request
+            Long.valueOf(parts[2]);
+            if (sort == ProductSort.NEWEST) {
+                LocalDateTime.parse(parts[1]);
+            } else {
+                new BigDecimal(parts[1]);
+            }
+            return new String[] { parts[1], parts[2] };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
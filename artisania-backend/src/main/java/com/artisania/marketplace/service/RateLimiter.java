@@ -0,0 +1,145 @@
+package com.artisania.marketplace.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process token-bucket rate limiter.
+ *
+ * Buckets are keyed by rule and client key (IP address, email, ...). They live in a
+ * bounded Caffeine map, so idle or excess keys are evicted and memory use stays flat
+ * during a spray attack. Each bucket refills continuously and is updated with a CAS
+ * loop, so there are no locks on the request path.
+ */
+@Service
+public class RateLimiter {
+
+    @Value("${rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${rate-limit.idle-minutes:30}")
+    private long idleMinutes;
+
+    private Cache<String, TokenBucket> buckets;
+
+    // rule name -> allowed/rejected counters
+    private final Map<String, RuleCounters> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    /**
+     * Take one token from the bucket of a rule and key.
+     * Returns 0 when the request is allowed, otherwise the seconds until a token is available.
+     */
+    public long tryAcquire(Rule rule, String key) {
+        TokenBucket bucket = buckets.get(rule.getName() + "|" + key, k -> new TokenBucket(rule));
+        long retryAfterSeconds = bucket.tryAcquire(System.nanoTime());
+
+        RuleCounters ruleCounters = counters.computeIfAbsent(rule.getName(), name -> new RuleCounters());
+        if (retryAfterSeconds == 0) {
+            ruleCounters.allowed.increment();
+        } else {
+            ruleCounters.rejected.increment();
+        }
+        return retryAfterSeconds;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> rules = new TreeMap<>();
+        counters.forEach((name, ruleCounters) -> rules.put(name, Map.of(
+                "allowed", ruleCounters.allowed.sum(),
+                "rejected", ruleCounters.rejected.sum())));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedKeys", buckets.estimatedSize());
+        stats.put("rules", rules);
+        return stats;
+    }
+
+    /**
+     * Bucket size and refill rate of one limit, parsed from "capacity,perMinute".
+     */
+    public static class Rule {
+        private final String name;
+        private final int capacity;
+        private final double tokensPerNano;
+
+        public Rule(String name, int capacity, double perMinute) {
+            if (capacity <= 0 || perMinute <= 0) {
+                throw new IllegalArgumentException("Invalid rate limit for " + name + ": " + capacity + "," + perMinute);
+            }
+            this.name = name;
+            this.capacity = capacity;
+            this.tokensPerNano = perMinute / Duration.ofMinutes(1).toNanos();
+        }
+
+        public static Rule parse(String name, String spec) {
+            String[] parts = spec.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Rate limit for " + name + " must be 'capacity,perMinute': " + spec);
+            }
+            return new Rule(name, Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class RuleCounters {
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    private static class TokenBucket {
+        private final Rule rule;
+        private final AtomicReference<State> state;
+
+        TokenBucket(Rule rule) {
+            this.rule = rule;
+            this.state = new AtomicReference<>(new State(rule.capacity, System.nanoTime()));
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = Math.min(rule.capacity,
+                        current.tokens + Math.max(0, now - current.updatedAt) * rule.tokensPerNano);
+                if (tokens < 1) {
+                    double nanosUntilToken = (1 - tokens) / rule.tokensPerNano;
+                    return Math.max(1, (long) Math.ceil(nanosUntilToken / 1_000_000_000d));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private static class State {
+        private final double tokens;
+        private final long updatedAt;
+
+        State(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
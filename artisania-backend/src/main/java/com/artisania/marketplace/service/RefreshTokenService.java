@@ -0,0 +1,194 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.artisania.marketplace.model.RefreshToken;
+import com.artisania.marketplace.repository.RefreshTokenRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and rotates opaque refresh tokens, so clients can get a new access token
+ * without sending the password again (and without paying for a BCrypt check).
+ *
+ * Tokens are 256 random bits. They are stored only as a SHA-256 hash, which is enough
+ * for high-entropy secrets. Each refresh consumes the presented token and returns a new
+ * one in the same family. If a consumed token is presented again, the whole family is
+ * revoked.
+ *
+ * Expired rows are purged at startup and then every jwt.refresh-token.purge-interval-ms.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${jwt.refresh-token.expiration-ms:2592000000}")
+    private long refreshTokenExpiration;
+
+    // 0 = purge only at startup
+    @Value("${jwt.refresh-token.purge-interval-ms:3600000}")
+    private long purgeIntervalMs;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private ScheduledExecutorService purger;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurging() {
+        purgeExpiredTokens();
+        if (purgeIntervalMs <= 0) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    public int purgeExpiredTokens() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        System.out.println("Purged " + purged + " expired refresh tokens");
+        return purged;
+    }
+
+    // Runs on the purge thread, which bypasses the proxy, so it opens its own transaction
+    private void purgeQuietly() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> purgeExpiredTokens());
+        } catch (Exception e) {
+            System.err.println("Refresh token purge failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start a new refresh token family for a user who just authenticated with a password.
+     */
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consume a refresh token and return its successor, or null if the token is unknown,
+     * expired, already used, or belongs to a user who may no longer sign in.
+     */
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return null;
+        }
+
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken)).orElse(null);
+        if (current == null || current.isExpired()) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.isRevoked()) {
+            // A rotated token came back: assume it leaked and end the whole session
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            System.out.println("Refresh token reuse detected for user " + current.getUserId() + ", session revoked");
+            return null;
+        }
+
+        AuthenticatedUser user = userStatusCache.get(current.getUserId());
+        if (user == null || !user.isActive()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            return null;
+        }
+
+        current.setRevokedAt(now);
+        String next = create(current.getUserId(), current.getFamilyId());
+        return new Rotation(user, next);
+    }
+
+    /**
+     * Revoke the session a refresh token belongs to (logout).
+     */
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+            .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(refreshTokenExpiration * 1_000_000L);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, userId, expiresAt));
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Result of a successful rotation: the user it belongs to and the replacement token.
+     */
+    public static class Rotation {
+        private final AuthenticatedUser user;
+        private final String refreshToken;
+
+        public Rotation(AuthenticatedUser user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public AuthenticatedUser getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.artisania.marketplace.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request threading mode and JDBC connection pool usage for the admin stats endpoints.
+ *
+ * Virtual threads are opt-in with spring.threads.virtual.enabled=true, which moves Tomcat
+ * request handling and the application task executor (@Async, scheduling) onto virtual
+ * threads. Request concurrency is then bounded by the Hikari pool rather than the Tomcat
+ * thread count, so the pool's size, wait queue and timeouts are what to watch.
+ */
+@Service
+public class RuntimeDiagnosticsService {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logThreadingMode() {
+        HikariDataSource hikari = hikariDataSource();
+        if (!virtualThreads) {
+            System.out.println("Request threading: platform threads");
+        } else if (hikari != null) {
+            System.out.println("Request threading: virtual threads, concurrency bounded by the connection pool (max "
+                    + hikari.getMaximumPoolSize() + " connections, " + hikari.getConnectionTimeout() + " ms timeout)");
+        } else {
+            System.out.println("Request threading: virtual threads");
+        }
+    }
+
+    public Map<String, Object> getThreadingStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("virtualThreads", virtualThreads);
+        stats.put("liveThreads", Thread.activeCount());
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null) {
+            stats.put("pinning", monitor.getStatistics());
+        }
+        return stats;
+    }
+
+    public Map<String, Object> getConnectionPoolStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        HikariDataSource hikari = hikariDataSource();
+        if (hikari == null) {
+            stats.put("pool", "unavailable");
+            return stats;
+        }
+        stats.put("pool", hikari.getPoolName());
+        stats.put("maximumPoolSize", hikari.getMaximumPoolSize());
+        stats.put("minimumIdle", hikari.getMinimumIdle());
+        stats.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool != null) {
+            stats.put("activeConnections", pool.getActiveConnections());
+            stats.put("idleConnections", pool.getIdleConnections());
+            stats.put("totalConnections", pool.getTotalConnections());
+            // Requests blocked waiting for a connection - the queue virtual threads pile into
+            stats.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+        }
+        return stats;
+    }
+
+    private HikariDataSource hikariDataSource() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not unwrap the connection pool: " + e.getMessage());
+        }
+        return null;
+    }
+}
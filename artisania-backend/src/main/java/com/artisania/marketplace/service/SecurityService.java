@@ -1,28 +1,23 @@
 package com.artisania.marketplace.service;
 
-import com.artisania.marketplace.model.ArtisanProfile;
-import com.artisania.marketplace.model.Order;
-import com.artisania.marketplace.model.Product;
-import com.artisania.marketplace.model.ProductImage;
+import com.artisania.marketplace.dto.AuthenticatedUser;
 import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.repository.ArtisanProfileRepository;
 import com.artisania.marketplace.repository.OrderRepository;
 import com.artisania.marketplace.repository.ProductImageRepository;
 import com.artisania.marketplace.repository.ProductRepository;
-import com.artisania.marketplace.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Service
 public class SecurityService {
 
-    @Autowired
-    private UserRepository userRepository;
-    
     @Autowired
     private ProductRepository productRepository;
     
@@ -35,77 +30,102 @@ public class SecurityService {
     @Autowired
     private ProductImageRepository productImageRepository;
 
+    @Autowired
+    private CurrentPrincipal currentPrincipal;
+
+    /**
+     * Get the principal of the current request (id, email, role) without a database lookup
+     */
+    public AuthenticatedUser getCurrentPrincipal() {
+        return currentPrincipal.get();
+    }
+
     /**
-     * Get the currently authenticated user
+     * Get the currently authenticated user entity (loaded at most once per request)
      */
     public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElse(null);
+        return currentPrincipal.getUser().orElse(null);
     }
 
     /**
      * Check if current user is the owner of a product or is an admin
      */
     public boolean canEditProduct(Long productId) {
-        User currentUser = getCurrentUser();
+        return canEditProduct(getCurrentPrincipal(), productId);
+    }
+
+    public boolean canEditProduct(AuthenticatedUser currentUser, Long productId) {
         if (currentUser == null) {
             return false;
         }
         
         // Admin can edit any product
-        if (hasRole("ADMIN")) {
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
             return true;
         }
         
         // Artisan can edit their own products
-        if (hasRole("ARTISAN")) {
-            Optional<Product> product = productRepository.findById(productId);
-            if (product.isPresent()) {
-                return product.get().getArtisan().getUser().getId().equals(currentUser.getId());
-            }
+        if (currentUser.hasRole(User.UserRole.ARTISAN)) {
+            return productRepository.existsByIdAndArtisanUserId(productId, currentUser.getId());
         }
         
         return false;
     }
 
+    /**
+     * Of the given product ids, the ones the current user may edit (one query)
+     */
+    public Set<Long> getEditableProductIds(Collection<Long> productIds) {
+        AuthenticatedUser currentUser = getCurrentPrincipal();
+        if (currentUser == null || productIds.isEmpty()) {
+            return Set.of();
+        }
+
+        // Admin can edit every product that exists
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
+            return new LinkedHashSet<>(productRepository.findExistingIds(productIds));
+        }
+
+        // Artisan can edit their own products
+        if (currentUser.hasRole(User.UserRole.ARTISAN)) {
+            return new LinkedHashSet<>(productRepository.findIdsOwnedByArtisanUser(productIds, currentUser.getId()));
+        }
+
+        return Set.of();
+    }
+
     /**
      * Check if current user can edit an artisan profile
      */
     public boolean canEditArtisanProfile(Long artisanProfileId) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentPrincipal();
         if (currentUser == null) {
             return false;
         }
         
         // Admin can edit any profile
-        if (hasRole("ADMIN")) {
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
             return true;
         }
         
         // Artisan can edit their own profile
-        Optional<ArtisanProfile> profile = artisanProfileRepository.findById(artisanProfileId);
-        if (profile.isPresent()) {
-            return profile.get().getUser().getId().equals(currentUser.getId());
-        }
-        
-        return false;
+        return artisanProfileRepository.existsByIdAndUserId(artisanProfileId, currentUser.getId());
     }
 
     /**
      * Check if current user can view orders for a specific customer
      */
     public boolean canViewCustomerOrders(Long customerId) {
-        User currentUser = getCurrentUser();
+        return canViewCustomerOrders(getCurrentPrincipal(), customerId);
+    }
+
+    public boolean canViewCustomerOrders(AuthenticatedUser currentUser, Long customerId) {
         if (currentUser == null) {
             return false;
         }
         
         // Admin can view any orders
-        if (hasRole("ADMIN")) {
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
             return true;
         }
         
@@ -117,57 +137,43 @@ public class SecurityService {
      * Check if current user can view a specific order
      */
     public boolean canViewOrder(Long orderId) {
-        User currentUser = getCurrentUser();
+        return canViewOrder(getCurrentPrincipal(), orderId);
+    }
+
+    public boolean canViewOrder(AuthenticatedUser currentUser, Long orderId) {
         if (currentUser == null) {
             return false;
         }
         
         // Admin can view any order
-        if (hasRole("ADMIN")) {
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
             return true;
         }
         
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            Order orderEntity = order.get();
-            
-            // Customer can view their own orders
-            if (orderEntity.getCustomer() != null && 
-                orderEntity.getCustomer().getId().equals(currentUser.getId())) {
-                return true;
-            }
-            
-            // Artisan can view orders containing their products
-            if (hasRole("ARTISAN")) {
-                return orderEntity.getOrderItems().stream()
-                    .anyMatch(item -> item.getProduct().getArtisan().getUser().getId().equals(currentUser.getId()));
-            }
-        }
-        
-        return false;
+        // Customer can view their own orders; artisan can view orders containing their products
+        return orderRepository.isOrderVisibleToUser(orderId, currentUser.getId(), currentUser.hasRole(User.UserRole.ARTISAN));
     }
 
     /**
      * Check if current user can update order status
      */
     public boolean canUpdateOrderStatus(Long orderId) {
-        User currentUser = getCurrentUser();
+        return canUpdateOrderStatus(getCurrentPrincipal(), orderId);
+    }
+
+    public boolean canUpdateOrderStatus(AuthenticatedUser currentUser, Long orderId) {
         if (currentUser == null) {
             return false;
         }
         
         // Admin can update any order status
-        if (hasRole("ADMIN")) {
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
             return true;
         }
         
         // Artisan can update status of orders containing their products
-        if (hasRole("ARTISAN")) {
-            Optional<Order> order = orderRepository.findById(orderId);
-            if (order.isPresent()) {
-                return order.get().getOrderItems().stream()
-                    .anyMatch(item -> item.getProduct().getArtisan().getUser().getId().equals(currentUser.getId()));
-            }
+        if (currentUser.hasRole(User.UserRole.ARTISAN)) {
+            return orderRepository.existsArtisanItemInOrder(orderId, currentUser.getId());
         }
         
         return false;
@@ -177,32 +183,15 @@ public class SecurityService {
      * Check if current user can create product images for a product
      */
     public boolean canCreateProductImage(Long productId) {
-        User currentUser = getCurrentUser();
-        if (currentUser == null) {
-            return false;
-        }
-        
-        // Admin can create images for any product
-        if (hasRole("ADMIN")) {
-            return true;
-        }
-        
-        // Artisan can create images for their own products
-        if (hasRole("ARTISAN")) {
-            Optional<Product> product = productRepository.findById(productId);
-            if (product.isPresent()) {
-                return product.get().getArtisan().getUser().getId().equals(currentUser.getId());
-            }
-        }
-        
-        return false;
+        // Same ownership rule as editing the product itself
+        return canEditProduct(getCurrentPrincipal(), productId);
     }
 
     /**
      * Check if current user is accessing their own user data
      */
     public boolean isCurrentUser(Long userId) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentPrincipal();
         return currentUser != null && currentUser.getId().equals(userId);
     }
 
@@ -219,22 +208,22 @@ public class SecurityService {
     }
 
     public boolean canEditProductImage(Long imageId) {
-        User currentUser = getCurrentUser();
+        return canEditProductImage(getCurrentPrincipal(), imageId);
+    }
+
+    public boolean canEditProductImage(AuthenticatedUser currentUser, Long imageId) {
         if (currentUser == null) {
             return false;
         }
 
         // Admin can edit any product image
-        if (hasRole("ADMIN")) {
+        if (currentUser.hasRole(User.UserRole.ADMIN)) {
             return true;
         }
 
         // Artisan can edit images for their own products
-        if (hasRole("ARTISAN")) {
-            Optional<ProductImage> image = productImageRepository.findById(imageId);
-            if (image.isPresent()) {
-                return image.get().getProduct().getArtisan().getUser().getId().equals(currentUser.getId());
-            }
+        if (currentUser.hasRole(User.UserRole.ARTISAN)) {
+            return productImageRepository.existsByIdAndProductArtisanUserId(imageId, currentUser.getId());
         }
 
         return false;
@@ -244,34 +233,29 @@ public class SecurityService {
      * Check if current artisan has products in a specific order
      */
     public boolean artisanHasProductsInOrder(Long orderId) {
-        User currentUser = getCurrentUser();
-        if (currentUser == null || !hasRole("ARTISAN")) {
-            return false;
-        }
+        return artisanHasProductsInOrder(getCurrentPrincipal(), orderId);
+    }
 
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            return order.get().getOrderItems().stream()
-                .anyMatch(item -> item.getProduct().getArtisan().getUser().getId().equals(currentUser.getId()));
+    public boolean artisanHasProductsInOrder(AuthenticatedUser currentUser, Long orderId) {
+        if (currentUser == null || !currentUser.hasRole(User.UserRole.ARTISAN)) {
+            return false;
         }
 
-        return false;
+        return orderRepository.existsArtisanItemInOrder(orderId, currentUser.getId());
     }
 
     /**
      * Check if current artisan owns a specific order item
      */
     public boolean artisanOwnsOrderItem(Long itemId) {
-        User currentUser = getCurrentUser();
-        if (currentUser == null || !hasRole("ARTISAN")) {
-            return false;
-        }
+        return artisanOwnsOrderItem(getCurrentPrincipal(), itemId);
+    }
 
-        Optional<com.artisania.marketplace.model.OrderItem> item = orderRepository.findOrderItemById(itemId);
-        if (item.isPresent()) {
-            return item.get().getProduct().getArtisan().getUser().getId().equals(currentUser.getId());
+    public boolean artisanOwnsOrderItem(AuthenticatedUser currentUser, Long itemId) {
+        if (currentUser == null || !currentUser.hasRole(User.UserRole.ARTISAN)) {
+            return false;
         }
 
-        return false;
+        return orderRepository.existsOrderItemForArtisan(itemId, currentUser.getId());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.event.ProductChangedEvent;
+import com.artisania.marketplace.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves and releases product stock for orders.
+ *
+ * Each product is decremented with one conditional UPDATE (stock_quantity >= requested), all
+ * items of an order sent as a single JDBC batch. The database applies the check and the
+ * decrement atomically, so concurrent checkouts on the same product can never oversell and
+ * no row is read-then-written. Rows are updated in product id order so two multi-item orders
+ * cannot deadlock, and callers reserve as the last step of their transaction to keep the row
+ * locks short under flash-sale traffic.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class StockReservationService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FeaturedProductsSnapshotService featuredProductsSnapshotService;
+
+    /**
+     * Take stock for every item, or none of it: throws IllegalStateException (rolling back the
+     * surrounding transaction) when any product does not have enough stock left.
+     */
+    public void reserve(List<OrderItem> items) {
+        Map<Long, Integer> quantities = quantitiesByProduct(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            batch.add(new Object[] { entry.getValue(), entry.getKey(), entry.getValue() });
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, batch);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new IllegalStateException("Insufficient stock for product " + productIds.get(i));
+            }
+        }
+        afterStockChange(productIds);
+    }
+
+    // Put reserved stock back, e.g. when an order is cancelled
+    public void release(List<OrderItem> items) {
+        Map<Long, Integer> quantities = quantitiesByProduct(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            batch.add(new Object[] { entry.getValue(), entry.getKey() });
+        }
+        jdbcTemplate.batchUpdate(RELEASE_SQL, batch);
+        afterStockChange(new ArrayList<>(quantities.keySet()));
+    }
+
+    // Sum quantities per product; TreeMap keeps a stable (id) lock order
+    private static Map<Long, Integer> quantitiesByProduct(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        if (items == null) {
+            return quantities;
+        }
+        for (OrderItem item : items) {
+            if (item.getProduct() == null || item.getProduct().getId() == null) {
+                throw new IllegalArgumentException("Order item must reference a product");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Order item quantity must be positive");
+            }
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // The JDBC update bypasses Hibernate, so drop cached product state and notify read models.
+    // Eviction waits for the commit: done earlier, a concurrent read could cache the old stock
+    // again. Cached queries only go when the featured cards (a cached projection) show one of
+    // the products, so ordinary checkouts leave the query cache alone.
+    private void afterStockChange(List<Long> productIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityCacheService.evictProducts(productIds);
+                if (featuredProductsSnapshotService.listsAnyOf(productIds)) {
+                    entityCacheService.evictQueries();
+                }
+            }
+
+            // Before the read-model listeners below, so they rebuild from fresh data
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+        });
+        for (Long productId : productIds) {
+            eventPublisher.publishEvent(ProductChangedEvent.saved(productId));
+        }
+    }
+}
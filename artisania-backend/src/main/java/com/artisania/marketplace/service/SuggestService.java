@@ -0,0 +1,31 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.Suggestion;
+import com.artisania.marketplace.search.SuggestionIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class SuggestService {
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Value("${suggest.limit.default:8}")
+    private int defaultLimit;
+
+    /**
+     * Typeahead suggestions (products and artisans) for a partially typed query,
+     * most popular first. Served entirely from memory.
+     */
+    public List<Suggestion> suggest(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int resolvedLimit = limit == null || limit <= 0 ? defaultLimit : limit;
+        return suggestionIndex.suggest(query, Math.min(resolvedLimit, SuggestionIndex.MAX_SUGGESTIONS));
+    }
+}
@@ -0,0 +1,281 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.model.RevokedToken;
+import com.artisania.marketplace.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token deny list checked on every authenticated request.
+ *
+ * Two kinds of entries: single tokens by jti (logout) and per-user epochs that revoke
+ * every token issued before a point in time (deactivation, deletion, password change).
+ * Revoked jtis sit behind a Bloom filter so the common "not revoked" answer never
+ * touches the exact set; user epochs are one map lookup. The revoked_tokens table is
+ * the source of truth and is reloaded at startup.
+ *
+ * Every auth.revocation.purge-interval-ms, entries whose tokens have expired are dropped
+ * from memory and the table, and the Bloom filter is rebuilt from the surviving jtis so
+ * its false-positive rate doesn't climb as revocations accumulate.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${jwt.access-token.expiration-ms:${JWT_EXPIRATION}}")
+    private Long jwtExpiration;
+
+    @Value("${auth.revocation.expected-tokens:100000}")
+    private int expectedTokens;
+
+    // 0 = prune only at startup
+    @Value("${auth.revocation.purge-interval-ms:3600000}")
+    private long purgeIntervalMs;
+
+    private volatile BloomFilter revokedJtiFilter;
+
+    // jti -> token expiry (epoch millis)
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+
+    // user id -> tokens issued before this instant (epoch millis) are revoked
+    private final Map<Long, Long> userEpochs = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService purger;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(now);
+
+        BloomFilter filter = new BloomFilter(Math.max(expectedTokens, active.size() * 2), FALSE_POSITIVE_RATE);
+        revokedJtis.clear();
+        userEpochs.clear();
+        for (RevokedToken entry : active) {
+            if (entry.getJti() != null) {
+                filter.add(entry.getJti());
+                revokedJtis.put(entry.getJti(), toEpochMillis(entry.getExpiresAt()));
+            }
+            if (entry.getUserId() != null && entry.getNotBefore() != null) {
+                userEpochs.merge(entry.getUserId(), toEpochMillis(entry.getNotBefore()), Math::max);
+            }
+        }
+        revokedJtiFilter = filter;
+        System.out.println("Token deny list loaded: " + revokedJtis.size() + " tokens, " +
+                userEpochs.size() + " user epochs (" + purged + " expired entries purged)");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurging() {
+        if (purgeIntervalMs <= 0) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Drop entries whose tokens have expired, then swap in a Bloom filter sized for what is left.
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = revokedTokenRepository.deleteExpired(toLocalDateTime(now));
+        // Conditional removes: an epoch raised meanwhile by revokeUser is kept
+        revokedJtis.entrySet().removeIf(entry -> entry.getValue() <= now);
+        userEpochs.entrySet().removeIf(entry -> entry.getValue() + jwtExpiration <= now);
+
+        BloomFilter filter = new BloomFilter(Math.max(expectedTokens, revokedJtis.size() * 2), FALSE_POSITIVE_RATE);
+        revokedJtis.keySet().forEach(filter::add);
+        revokedJtiFilter = filter;
+        // revokeToken records the jti before reading the filter, so one that went into the old
+        // filter during the copy is already in the map and is picked up here
+        revokedJtis.keySet().forEach(filter::add);
+
+        System.out.println("Token deny list pruned: " + revokedJtis.size() + " tokens, " +
+                userEpochs.size() + " user epochs (" + purged + " expired entries purged)");
+        return purged;
+    }
+
+    // Runs on the purge thread, which bypasses the proxy, so it opens its own transaction
+    private void purgeQuietly() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> purgeExpired());
+        } catch (Exception e) {
+            System.err.println("Token deny list purge failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether verified claims belong to a revoked token.
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null) {
+            BloomFilter filter = revokedJtiFilter;
+            if ((filter == null || filter.mightContain(jti)) && revokedJtis.containsKey(jti)) {
+                return true;
+            }
+        }
+
+        Object userId = claims.get(JwtService.USER_ID_CLAIM);
+        if (userId instanceof Number number) {
+            Long notBefore = userEpochs.get(number.longValue());
+            if (notBefore != null) {
+                Date issuedAt = claims.getIssuedAt();
+                return issuedAt == null || issuedAt.getTime() < notBefore;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Revoke a single token (logout).
+     */
+    @Transactional
+    public void revokeToken(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            throw new IllegalArgumentException("Token has no id and cannot be revoked individually");
+        }
+        long expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : System.currentTimeMillis() + jwtExpiration;
+
+        revokedTokenRepository.save(RevokedToken.forToken(jti, toLocalDateTime(expiresAt)));
+        // Map first, then whichever filter is current (see purgeExpired)
+        revokedJtis.put(jti, expiresAt);
+        BloomFilter filter = revokedJtiFilter;
+        if (filter != null) {
+            filter.add(jti);
+        }
+    }
+
+    /**
+     * Revoke every token issued to a user up to now.
+     */
+    @Transactional
+    public void revokeUser(Long userId) {
+        // iat has second precision, so round up to cover tokens issued earlier in this second
+        long notBefore = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        long expiresAt = notBefore + jwtExpiration;
+
+        revokedTokenRepository.save(RevokedToken.forUser(userId, toLocalDateTime(notBefore), toLocalDateTime(expiresAt)));
+        userEpochs.merge(userId, notBefore, Math::max);
+    }
+
+    public int getRevokedTokenCount() {
+        return revokedJtis.size();
+    }
+
+    public int getRevokedUserCount() {
+        return userEpochs.size();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Fixed-size, lock-free Bloom filter over strings (double hashing of a 64-bit FNV-1a hash).
+     */
+    static class BloomFilter {
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            int n = Math.max(expectedInsertions, 1);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        void add(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            // Final avalanche so both 32-bit halves are well mixed
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -3,9 +3,10 @@ package com.artisania.marketplace.service;
 import com.artisania.marketplace.model.User;
 import com.artisania.marketplace.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,12 +16,20 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       UserStatusCache userStatusCache, TokenRevocationService tokenRevocationService,
+                       RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userStatusCache = userStatusCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     // Get all users
@@ -46,7 +55,7 @@ public class UserService {
         }
 
         // Encode password before saving
-        user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
+        user.setPasswordHash(passwordHashingService.encode(user.getPasswordHash()));
         
         return userRepository.save(user);
     }
@@ -62,9 +71,11 @@ public class UserService {
                 user.setEmail(userDetails.getEmail());
             }
             
+            boolean revokeTokens = false;
             if (userDetails.getPasswordHash() != null) {
                 // Encode new password before saving
-                user.setPasswordHash(passwordEncoder.encode(userDetails.getPasswordHash()));
+                user.setPasswordHash(passwordHashingService.encode(userDetails.getPasswordHash()));
+                revokeTokens = true;
             }
             
             if (userDetails.getRole() != null) {
@@ -73,9 +84,17 @@ public class UserService {
             
             if (userDetails.getIsActive() != null) {
                 user.setIsActive(userDetails.getIsActive());
+                revokeTokens = revokeTokens || !userDetails.getIsActive();
             }
             
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            evictStatusAfterCommit(id);
+            // Password change or deactivation logs the user out everywhere
+            if (revokeTokens) {
+                tokenRevocationService.revokeUser(id);
+                refreshTokenService.revokeAllForUser(id);
+            }
+            return savedUser;
         }).orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
@@ -85,13 +104,18 @@ public class UserService {
             throw new RuntimeException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        evictStatusAfterCommit(id);
+        tokenRevocationService.revokeUser(id);
+        refreshTokenService.revokeAllForUser(id);
     }
 
     // Activate user
     public User activateUser(Long id) {
         return userRepository.findById(id).map(user -> {
             user.setIsActive(true);
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            evictStatusAfterCommit(id);
+            return savedUser;
         }).orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
@@ -99,10 +123,29 @@ public class UserService {
     public User deactivateUser(Long id) {
         return userRepository.findById(id).map(user -> {
             user.setIsActive(false);
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            evictStatusAfterCommit(id);
+            tokenRevocationService.revokeUser(id);
+            refreshTokenService.revokeAllForUser(id);
+            return savedUser;
         }).orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
+    // Evict once the change is committed: done earlier, a concurrent request could cache the
+    // old role or active flag again for a full TTL
+    private void evictStatusAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userStatusCache.evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userStatusCache.evict(id);
+            }
+        });
+    }
+
     // Get users by role
     public List<User> getUsersByRole(User.UserRole role) {
         return userRepository.findByRole(role);
@@ -144,7 +187,7 @@ public class UserService {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             // Use password encoder to match raw password with hashed password
-            return passwordEncoder.matches(rawPassword, user.getPasswordHash()) && user.getIsActive();
+            return passwordHashingService.matches(rawPassword, user.getPasswordHash()) && user.getIsActive();
         }
         return false;
     }
@@ -161,10 +204,21 @@ public class UserService {
             throw new RuntimeException("Email already exists");
         }
         
-        // Hash the password and set it
-        user.setPasswordHash(passwordEncoder.encode(password));
-        
-        // Save the user
+        // Hash the password (on the bounded hashing pool) and save the user
+        return createUserWithPasswordHash(user, passwordHashingService.encode(password));
+    }
+
+    /**
+     * Creates a new user whose password was already hashed by PasswordHashingService
+     * @param user User object with basic information
+     * @param passwordHash Encoded password
+     * @return Created user
+     */
+    public User createUserWithPasswordHash(User user, String passwordHash) {
+        if (userRepository.existsByEmail(user.getEmail())) {
+            throw new RuntimeException("Email already exists");
+        }
+        user.setPasswordHash(passwordHash);
         return userRepository.save(user);
     }
 } 
\ No newline at end of file
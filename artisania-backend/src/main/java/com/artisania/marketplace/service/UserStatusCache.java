@@ -0,0 +1,55 @@
+package com.artisania.marketplace.service;
+
+import com.artisania.marketplace.dto.AuthenticatedUser;
+import com.artisania.marketplace.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of user id -> current email, role and active flag.
+ *
+ * JWT claims are trusted for identity, but the status is looked up here so that a
+ * deactivated, deleted or re-roled user loses access within one TTL. Writes through
+ * UserService evict the entry as soon as they commit.
+ */
+@Service
+public class UserStatusCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auth.user-status.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${auth.user-status.max-entries:50000}")
+    private long maxEntries;
+
+    // Empty optional = user no longer exists (cached as well, so unknown ids stay cheap)
+    private Cache<Long, Optional<AuthenticatedUser>> statuses;
+
+    @PostConstruct
+    public void init() {
+        statuses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Current status of a user, or null if the user no longer exists.
+     */
+    public AuthenticatedUser get(Long userId) {
+        return statuses.get(userId, id -> userRepository.findPrincipalById(id)).orElse(null);
+    }
+
+    public void evict(Long userId) {
+        statuses.invalidate(userId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.artisania.marketplace.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listens to the JFR jdk.VirtualThreadPinned event while virtual threads are enabled.
+ *
+ * A virtual thread that blocks inside a synchronized block (our code, the JDBC driver,
+ * a library) holds on to its carrier thread; enough of those and the request executor
+ * behaves like a tiny fixed pool again. Each pinning site is logged once and counted,
+ * and the counts are exposed through the admin stats endpoint.
+ */
+@Service
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "diagnostics.pinning.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 100;
+
+    // Pins shorter than this are not recorded
+    @Value("${diagnostics.pinning.threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+    private final Map<String, LongAdder> pinsBySite = new ConcurrentHashMap<>();
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        System.out.println("Virtual thread pinning monitor started (threshold " + thresholdMs + " ms)");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+
+        String site = pinningSite(event);
+        LongAdder count = pinsBySite.get(site);
+        if (count == null) {
+            if (pinsBySite.size() >= MAX_SITES) {
+                site = "other";
+            } else {
+                System.out.println("Virtual thread pinned for " + event.getDuration().toMillis() + " ms at " + site);
+            }
+            count = pinsBySite.computeIfAbsent(site, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    // First application or driver frame; JDK frames only show where the thread parked
+    private String pinningSite(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Long> topSites = new LinkedHashMap<>();
+        pinsBySite.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(20)
+                .forEach(entry -> topSites.put(entry.getKey(), entry.getValue().sum()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("thresholdMs", thresholdMs);
+        stats.put("pinnedEvents", pinnedEvents.get());
+        stats.put("pinnedMillis", Duration.ofNanos(pinnedNanos.get()).toMillis());
+        stats.put("sites", topSites);
+        return stats;
+    }
+}